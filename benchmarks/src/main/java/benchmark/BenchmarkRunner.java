@@ -0,0 +1,38 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count in {@code -Dbench.threads}
+ * (default {@code 1,4,16}). Any regular JMH command line option is honoured,
+ * e.g. {@code -p fleetSize=100000} or a benchmark name regex.
+ * Results are written to {@code jmh-threads-N.json}.
+ */
+public final class BenchmarkRunner {
+
+    private static final String THREADS_PROPERTY = "bench.threads";
+    private static final String DEFAULT_THREADS = "1,4,16";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        for (String threads : System.getProperty(THREADS_PROPERTY, DEFAULT_THREADS).split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-threads-" + threadCount + ".json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
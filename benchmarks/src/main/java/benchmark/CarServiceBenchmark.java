@@ -0,0 +1,49 @@
+package benchmark;
+
+import model.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.DealershipExceptions.DealershipException;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code CarService.add}: regex validation, license plate uniqueness check and insert.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CarServiceBenchmark {
+
+    @Benchmark
+    public Car addNewCar(FleetState fleet) throws SQLException {
+        return fleet.carService.add(new Car(fleet.nextLicensePlate(), "Seat", "Leon", "Azul"));
+    }
+
+    @Benchmark
+    public void rejectDuplicateLicensePlate(FleetState fleet, Blackhole blackhole) throws SQLException {
+        try {
+            fleet.carService.add(new Car(fleet.existingLicensePlate(), "Seat", "Leon", "Azul"));
+        } catch (DealershipException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void rejectInvalidLicensePlate(FleetState fleet, Blackhole blackhole) throws SQLException {
+        try {
+            fleet.carService.add(new Car("12AB", "Seat", "Leon", "Azul"));
+        } catch (DealershipException e) {
+            blackhole.consume(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import model.Car;
+import model.Passenger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@code CarDAOImpl} and {@code PassengerDAOImpl}.
+ * Throughput plus sampled latency (p50/p90/p99/p99.9 in the JMH report).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Benchmark
+    public Car insertCar(FleetState fleet) throws SQLException {
+        return fleet.carDAO.insert(new Car(fleet.nextLicensePlate(), "Seat", "Leon", "Azul"));
+    }
+
+    @Benchmark
+    public Passenger insertPassenger(FleetState fleet) throws SQLException {
+        return fleet.passengerDAO.insert(new Passenger("Ana", 30, 60.5));
+    }
+
+    @Benchmark
+    public Optional<Car> findCarById(FleetState fleet) throws SQLException {
+        return fleet.carDAO.findById(fleet.randomCarId());
+    }
+
+    @Benchmark
+    public Optional<Passenger> findPassengerById(FleetState fleet) throws SQLException {
+        return fleet.passengerDAO.findById(fleet.randomPassengerId());
+    }
+
+    @Benchmark
+    public List<Car> findAllCars(FleetState fleet) throws SQLException {
+        return fleet.carDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Passenger> findAllPassengers(FleetState fleet) throws SQLException {
+        return fleet.passengerDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Passenger> findPassengersByCarId(FleetState fleet) throws SQLException {
+        return fleet.passengerDAO.findByCarId(fleet.randomCarId());
+    }
+
+    @Benchmark
+    public Map<Car, List<Passenger>> findAllWithPassengers(FleetState fleet) throws SQLException {
+        return fleet.carDAO.findAllWithPassengers();
+    }
+
+    @Benchmark
+    public boolean existsByLicensePlate(FleetState fleet) throws SQLException {
+        return fleet.carDAO.existsByLicensePlate(fleet.existingLicensePlate());
+    }
+}
@@ -0,0 +1,135 @@
+package benchmark;
+
+import config.ConnectionPool;
+import config.PoolConfig;
+import config.SQLQueries.CarPassengerQueries;
+import config.SchemaMigrator;
+import dao.CarDAO;
+import dao.PassengerDAO;
+import dao.impl.CarDAOImpl;
+import dao.impl.PassengerCountReconciler;
+import dao.impl.PassengerDAOImpl;
+import model.Car;
+import model.Passenger;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import service.CarService;
+import service.PassengerService;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded in-memory H2 database (MySQL mode) seeded with {@code fleetSize} cars,
+ * twice as many passengers and up to two of them in each car.
+ */
+@State(Scope.Benchmark)
+public class FleetState {
+
+    private static final int PASSENGERS_PER_CAR = 2;
+
+    @Param({"1000", "10000"})
+    public int fleetSize;
+
+    @Param({"16"})
+    public int poolSize;
+
+    ConnectionPool pool;
+    CarDAO carDAO;
+    PassengerDAO passengerDAO;
+    CarService carService;
+    PassengerService passengerService;
+
+    private final AtomicInteger plateSequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:fleet-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        PoolConfig defaults = PoolConfig.of(url, "sa", "");
+        pool = new ConnectionPool(new PoolConfig(url, "sa", "", poolSize, poolSize,
+                defaults.idleTimeoutMillis(), defaults.borrowTimeoutMillis(), 0,
+                defaults.validationTimeoutSeconds(), defaults.housekeepingIntervalMillis(),
+                defaults.statementCacheSize()));
+        new SchemaMigrator(pool).migrate();
+
+        carDAO = new CarDAOImpl(pool);
+        passengerDAO = new PassengerDAOImpl(pool);
+        carService = new CarService(carDAO);
+        passengerService = new PassengerService(passengerDAO, carDAO);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    String nextLicensePlate() {
+        return licensePlate(plateSequence.getAndIncrement());
+    }
+
+    String existingLicensePlate() {
+        return licensePlate(ThreadLocalRandom.current().nextInt(fleetSize));
+    }
+
+    int randomCarId() {
+        return ThreadLocalRandom.current().nextInt(fleetSize) + 1;
+    }
+
+    int randomPassengerId() {
+        return ThreadLocalRandom.current().nextInt(fleetSize * PASSENGERS_PER_CAR) + 1;
+    }
+
+    /**
+     * Maps {@code n} to a distinct plate matching {@code NNNNLLL}.
+     */
+    static String licensePlate(int n) {
+        int letters = n / 10_000;
+        return String.format("%04d%c%c%c", n % 10_000,
+                (char) ('A' + letters / (26 * 26) % 26),
+                (char) ('A' + letters / 26 % 26),
+                (char) ('A' + letters % 26));
+    }
+
+    private void seed() throws SQLException {
+        List<Car> cars = new ArrayList<>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            cars.add(new Car(nextLicensePlate(), "Seat", "Ibiza", "Rojo"));
+        }
+        carDAO.insertAll(cars);
+
+        List<Passenger> passengers = new ArrayList<>(fleetSize * PASSENGERS_PER_CAR);
+        for (int i = 0; i < fleetSize * PASSENGERS_PER_CAR; i++) {
+            passengers.add(new Passenger("Pasajero " + i, 18 + i % 60, 50 + i % 50));
+        }
+        passengerDAO.insertAll(passengers);
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(CarPassengerQueries.ADD_PASSENGER_TO_CAR)) {
+            conn.setAutoCommit(false);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int carId = 1; carId <= fleetSize; carId++) {
+                int seats = random.nextInt(PASSENGERS_PER_CAR + 1);
+                for (int seat = 0; seat < seats; seat++) {
+                    pstmt.setInt(1, carId);
+                    pstmt.setInt(2, (carId - 1) * PASSENGERS_PER_CAR + seat + 1);
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+        // The seats bypass the DAO, so bring cars.passenger_count in line afterwards.
+        new PassengerCountReconciler(pool).reconcile();
+    }
+}
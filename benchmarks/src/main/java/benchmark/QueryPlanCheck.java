@@ -0,0 +1,136 @@
+package benchmark;
+
+import config.SQLQueries;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query plan regression check: seeds an embedded {@link FleetState} database and
+ * runs {@code EXPLAIN ANALYZE} on every query of {@link SQLQueries#catalog()}.
+ * A query fails when its plan scans a whole table or index, sorts without an
+ * index, or examines more than {@code -Dplan.maxRows} rows (default 100).
+ * The fleet size is {@code -Dplan.fleetSize} (default 100000).
+ * Exits with status 1 if any query fails, so it can gate a build.
+ * <p>
+ * INSERT, UPDATE and DELETE are only {@code EXPLAIN}ed, so the data stays untouched.
+ */
+public final class QueryPlanCheck {
+
+    private static final String FLEET_SIZE_PROPERTY = "plan.fleetSize";
+    private static final String MAX_ROWS_PROPERTY = "plan.maxRows";
+    private static final int DEFAULT_FLEET_SIZE = 100_000;
+    private static final long DEFAULT_MAX_ROWS = 100;
+    private static final int POOL_SIZE = 2;
+
+    /** Placeholders in the expanded {@code IN (...)} templates, rows in the multi-row inserts. */
+    private static final int IN_LIST_SIZE = 10;
+    /** Numeric text converts to every parameter type used by the catalog; 20 rows is one page. */
+    private static final String SAMPLE_PARAMETER = "20";
+
+    /** Listings, exports and the counter reconciliation read whole tables or id ranges on purpose. */
+    private static final Set<String> FULL_READS = Set.of(
+            "CarQueries.FIND_ALL",
+            "PassengerQueries.FIND_ALL",
+            "CarPassengerQueries.FIND_ALL",
+            "CarPassengerQueries.FIND_ALL_CARS_WITH_PASSENGERS",
+            "CarPassengerQueries.FIND_PASSENGER_COUNT_DRIFT");
+
+    /** H2 marks a table scan as {@code /* T.tableScan *}{@code /} and a whole-index scan as an index without condition. */
+    private static final Pattern FULL_SCAN = Pattern.compile("/\\* [\\w\"]+\\.[\\w\"]+(?:\\.tableScan)? \\*/");
+    private static final Pattern SCAN_COUNT = Pattern.compile("/\\* scanCount: (\\d+) \\*/");
+    /** MIN/MAX answered from the first or last index entry. */
+    private static final String DIRECT_LOOKUP = "/* direct lookup */";
+    private static final String INDEX_SORTED = "/* index sorted */";
+    private static final String ORDER_BY = "ORDER BY";
+
+    record PlanResult(String name, long rowsExamined, List<String> problems, String plan) {
+        boolean passed() {
+            return problems.isEmpty();
+        }
+    }
+
+    private QueryPlanCheck() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        FleetState fleet = new FleetState();
+        fleet.fleetSize = Integer.getInteger(FLEET_SIZE_PROPERTY, DEFAULT_FLEET_SIZE);
+        fleet.poolSize = POOL_SIZE;
+        long maxRows = Long.getLong(MAX_ROWS_PROPERTY, DEFAULT_MAX_ROWS);
+
+        List<PlanResult> failures = new ArrayList<>();
+        fleet.setUp();
+        try (Connection conn = fleet.pool.getConnection()) {
+            for (Map.Entry<String, String> query : SQLQueries.catalog().entrySet()) {
+                PlanResult result = check(conn, query.getKey(), query.getValue(), maxRows);
+                System.out.printf("%-50s %-4s filas=%d%n", result.name(), result.passed() ? "OK" : "FALLO",
+                        result.rowsExamined());
+                if (!result.passed()) {
+                    failures.add(result);
+                }
+            }
+        } finally {
+            fleet.tearDown();
+        }
+
+        for (PlanResult failure : failures) {
+            System.out.println();
+            System.out.println(failure.name() + ": " + String.join(", ", failure.problems()));
+            System.out.println(failure.plan());
+        }
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    static PlanResult check(Connection conn, String name, String query, long maxRows) throws SQLException {
+        String sql = SQLQueries.isStatic(query) ? query
+                : SQLQueries.isMultiRow(query) ? SQLQueries.withRows(query, IN_LIST_SIZE)
+                : SQLQueries.withPlaceholders(query, IN_LIST_SIZE);
+        boolean modifies = !sql.startsWith("SELECT");
+        String plan = explain(conn, (modifies ? "EXPLAIN " : "EXPLAIN ANALYZE ") + sql);
+
+        long rows = 0;
+        Matcher scanCount = SCAN_COUNT.matcher(plan);
+        while (scanCount.find()) {
+            rows += Long.parseLong(scanCount.group(1));
+        }
+
+        List<String> problems = new ArrayList<>();
+        if (!FULL_READS.contains(name)) {
+            if (FULL_SCAN.matcher(plan).find() && !plan.contains(DIRECT_LOOKUP)) {
+                problems.add("recorrido completo");
+            }
+            if (plan.contains(ORDER_BY) && !plan.contains(INDEX_SORTED)) {
+                problems.add("ordenación sin índice");
+            }
+            if (rows > maxRows) {
+                problems.add("examina " + rows + " filas (máximo " + maxRows + ")");
+            }
+        }
+        return new PlanResult(name, rows, problems, plan);
+    }
+
+    private static String explain(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int parameters = pstmt.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                pstmt.setString(i, SAMPLE_PARAMETER);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append(System.lineSeparator());
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
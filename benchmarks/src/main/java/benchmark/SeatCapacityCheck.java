@@ -0,0 +1,122 @@
+package benchmark;
+
+import model.Passenger;
+import utils.DealershipExceptions.DealershipException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static utils.Constants.MAX_PASSENGERS_PER_CAR;
+
+/**
+ * Concurrency stress check for seat assignment: {@code -Dseats.threads} threads
+ * (default 32) race to make {@code -Dseats.assignments} assignments (default 600)
+ * through {@code PassengerService.addPassengerToCar} into a {@link FleetState} of
+ * only {@code -Dseats.cars} cars (default 20), so most cars fill up while
+ * several threads still compete for them.
+ * Exits with status 1 if any car ends up with more than
+ * {@code MAX_PASSENGERS_PER_CAR} passengers or with a {@code passenger_count}
+ * that disagrees with its assignments, so it can gate a build.
+ */
+public final class SeatCapacityCheck {
+
+    private static final String THREADS_PROPERTY = "seats.threads";
+    private static final String ASSIGNMENTS_PROPERTY = "seats.assignments";
+    private static final String CARS_PROPERTY = "seats.cars";
+    private static final int DEFAULT_THREADS = 32;
+    private static final int DEFAULT_ASSIGNMENTS = 600;
+    private static final int DEFAULT_CARS = 20;
+
+    private static final String SEATS_PER_CAR =
+            "SELECT c.id, c.passenger_count, COUNT(cp.car_id) FROM cars c " +
+                    "LEFT JOIN car_passengers cp ON cp.car_id = c.id GROUP BY c.id, c.passenger_count";
+
+    private SeatCapacityCheck() {
+    }
+
+    public static void main(String[] args) throws SQLException, InterruptedException {
+        int threads = Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS);
+        int assignments = Integer.getInteger(ASSIGNMENTS_PROPERTY, DEFAULT_ASSIGNMENTS);
+        FleetState fleet = new FleetState();
+        fleet.fleetSize = Integer.getInteger(CARS_PROPERTY, DEFAULT_CARS);
+        fleet.poolSize = threads;
+
+        List<String> failures = new ArrayList<>();
+        fleet.setUp();
+        try {
+            List<Integer> passengerIds = new ArrayList<>(assignments);
+            for (int i = 0; i < assignments; i++) {
+                passengerIds.add(fleet.passengerDAO.insert(new Passenger("Carrera " + i, 30, 70)).getId());
+            }
+
+            AtomicInteger assigned = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>(assignments);
+            try (ExecutorService workers = Executors.newFixedThreadPool(threads)) {
+                for (int passengerId : passengerIds) {
+                    results.add(workers.submit(() -> {
+                        start.await();
+                        try {
+                            fleet.passengerService.addPassengerToCar(passengerId, fleet.randomCarId());
+                            assigned.incrementAndGet();
+                        } catch (DealershipException e) {
+                            rejected.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failures.add("error inesperado: " + e.getCause());
+                }
+            }
+            System.out.printf("hilos=%d intentos=%d asignados=%d rechazados=%d%n",
+                    threads, assignments, assigned.get(), rejected.get());
+
+            failures.addAll(checkSeats(fleet));
+        } finally {
+            fleet.tearDown();
+        }
+
+        failures.forEach(System.out::println);
+        System.out.println(failures.isEmpty() ? "OK" : "FALLO");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    private static List<String> checkSeats(FleetState fleet) throws SQLException {
+        List<String> failures = new ArrayList<>();
+        try (Connection conn = fleet.pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SEATS_PER_CAR);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                int carId = rs.getInt(1);
+                int counter = rs.getInt(2);
+                int seated = rs.getInt(3);
+                if (seated > MAX_PASSENGERS_PER_CAR) {
+                    failures.add(String.format("coche %d: %d pasajeros (máximo %d)",
+                            carId, seated, MAX_PASSENGERS_PER_CAR));
+                }
+                if (counter != seated) {
+                    failures.add(String.format("coche %d: passenger_count=%d pero %d asignaciones",
+                            carId, counter, seated));
+                }
+            }
+        }
+        return failures;
+    }
+}
@@ -1,16 +1,33 @@
 import config.DatabaseConnection;
+import config.RoutingDataSource;
+import config.SchemaMigrator;
+import config.TransactionAwareDataSource;
 import dao.CarDAO;
+import dao.Page;
 import dao.PassengerDAO;
+import dao.cache.CachingCarDAO;
+import dao.cache.CachingPassengerDAO;
 import dao.impl.CarDAOImpl;
+import dao.impl.PassengerCountReconciler;
+import dao.index.IndexedCarDAO;
+import dao.loader.CoalescingCarDAO;
+import dao.loader.CoalescingPassengerDAO;
+import dao.metrics.DaoMetrics;
 import dao.impl.PassengerDAOImpl;
 import model.Car;
 import model.Passenger;
 import service.CarService;
 import utils.DealershipExceptions.*;
 import service.PassengerService;
+import transfer.ExportCommand;
+import transfer.ImportCommand;
+import transfer.SyncCommand;
 
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
 
@@ -19,8 +36,34 @@ import static utils.Constants.*;
 public final class Main {
     private static final Scanner scanner = new Scanner(System.in);
 
-    private static final CarDAO carDAO = new CarDAOImpl();
-    private static final PassengerDAO passengerDAO = new PassengerDAOImpl();
+    private static final boolean CACHE_ENABLED =
+            Boolean.parseBoolean(System.getProperty(PROPERTY_CACHE_ENABLED, "true"));
+
+    private static final boolean METRICS_ENABLED =
+            Boolean.parseBoolean(System.getProperty(PROPERTY_METRICS_ENABLED, "true"));
+
+    private static final boolean SCHEMA_MIGRATE =
+            Boolean.parseBoolean(System.getProperty(PROPERTY_SCHEMA_MIGRATE, "true"));
+
+    private static final boolean PLATE_INDEX_ENABLED =
+            Boolean.parseBoolean(System.getProperty(PROPERTY_PLATE_INDEX_ENABLED, "true"));
+
+    private static final Duration LOADER_WINDOW =
+            Duration.ofNanos(1_000 * Long.getLong(PROPERTY_LOADER_WINDOW_MICROS, DEFAULT_LOADER_WINDOW_MICROS));
+
+    private static final DaoMetrics daoMetrics = new DaoMetrics();
+    private static final CarDAO jdbcCarDAO = coalesce(
+            routeReads(CarDAO.class, instrument(CarDAO.class, new CarDAOImpl())));
+    private static final PassengerDAO jdbcPassengerDAO = coalesce(
+            routeReads(PassengerDAO.class, instrument(PassengerDAO.class, new PassengerDAOImpl())));
+    private static final CarDAO cachedCarDAO = CACHE_ENABLED
+            ? new CachingCarDAO(jdbcCarDAO) : jdbcCarDAO;
+    private static final IndexedCarDAO indexedCarDAO = PLATE_INDEX_ENABLED
+            ? new IndexedCarDAO(cachedCarDAO) : null;
+    private static final CarDAO carDAO = indexedCarDAO != null ? indexedCarDAO : cachedCarDAO;
+    private static final PassengerDAO passengerDAO = CACHE_ENABLED
+            ? new CachingPassengerDAO(jdbcPassengerDAO) : jdbcPassengerDAO;
+    private static final PassengerCountReconciler passengerCountReconciler = new PassengerCountReconciler();
     private static final CarService carService = new CarService(carDAO);
     private static final PassengerService passengerService = new PassengerService(passengerDAO, carDAO);
 
@@ -28,7 +71,16 @@ public final class Main {
     }
 
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(runCommand(args));
+        }
         try {
+            if (METRICS_ENABLED) {
+                daoMetrics.registerMBeans();
+            }
+            migrateSchema();
+            loadPlateIndex();
+            passengerCountReconciler.schedule(Duration.ofMinutes(RECONCILE_INTERVAL_MINUTES));
             runMainLoop();
         } catch (Exception e) {
             System.out.println(ERROR_DATABASE);
@@ -38,6 +90,50 @@ public final class Main {
         }
     }
 
+    /**
+     * Non-interactive commands, e.g. {@code import cars coches.csv} or {@code export copia/}.
+     */
+    private static int runCommand(String[] args) {
+        String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+        try {
+            migrateSchema();
+            return switch (args[0]) {
+                case ImportCommand.NAME -> ImportCommand.run(commandArgs);
+                case ExportCommand.NAME -> ExportCommand.run(commandArgs);
+                case SyncCommand.NAME -> SyncCommand.run(commandArgs);
+                default -> {
+                    System.err.println(String.format(ERROR_UNKNOWN_COMMAND, args[0]));
+                    yield EXIT_USAGE;
+                }
+            };
+        } catch (SQLException e) {
+            System.err.println(ERROR_MESSAGE_PREFIX + e.getMessage());
+            return EXIT_FAILURE;
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Creates or upgrades the tables before anything else touches them.
+     */
+    private static void migrateSchema() throws SQLException {
+        if (SCHEMA_MIGRATE) {
+            new SchemaMigrator(DatabaseConnection.getDataSource()).migrate();
+        }
+    }
+
+    private static void loadPlateIndex() {
+        if (indexedCarDAO == null) {
+            return;
+        }
+        try {
+            indexedCarDAO.load();
+        } catch (SQLException e) {
+            System.err.println(String.format(WARN_PLATE_INDEX_LOAD, e.getMessage()));
+        }
+    }
+
     private static void runMainLoop() {
         boolean continueRunning = true;
         while (continueRunning) {
@@ -119,6 +215,7 @@ public final class Main {
 
             Car updatedCar = readCarDetails();
             updatedCar.setId(id);
+            updatedCar.setVersion(existingCar.get().getVersion());
 
             if (carService.update(updatedCar)) {
                 System.out.println(SUCCESS_CAR_UPDATED);
@@ -160,14 +257,18 @@ public final class Main {
 
     private static void listAllCars() {
         try {
-            List<Car> cars = carService.findAll();
-            if (cars.isEmpty()) {
+            Page<Car> page = carService.findPage(0, PAGE_SIZE);
+            if (page.isEmpty()) {
                 System.out.println(ERROR_NO_CARS);
                 return;
             }
 
             System.out.println(TITLE_LIST_CARS);
-            cars.forEach(System.out::println);
+            page.items().forEach(System.out::println);
+            while (page.hasNext() && wantsNextPage()) {
+                page = carService.findPage(page.nextPageToken(), PAGE_SIZE);
+                page.items().forEach(System.out::println);
+            }
         } catch (DealershipException e) {
             System.out.println(ERROR_MESSAGE_PREFIX + e.getMessage());
         }
@@ -259,7 +360,14 @@ public final class Main {
         try {
             int id = readId(PROMPT_PASSENGER_ID);
             passengerService.findById(id).ifPresentOrElse(
-                    System.out::println,
+                    passenger -> {
+                        System.out.println(passenger);
+                        List<Car> cars = passengerService.findCarsByPassengerId(id);
+                        if (!cars.isEmpty()) {
+                            System.out.printf(TITLE_LIST_PASSENGER_CARS, id);
+                            cars.forEach(System.out::println);
+                        }
+                    },
                     () -> System.out.println(ERROR_PASSENGER_NOT_FOUND)
             );
         } catch (DealershipException e) {
@@ -269,14 +377,18 @@ public final class Main {
 
     private static void listAllPassengers() {
         try {
-            List<Passenger> passengers = passengerService.findAll();
-            if (passengers.isEmpty()) {
+            Page<Passenger> page = passengerService.findPage(0, PAGE_SIZE);
+            if (page.isEmpty()) {
                 System.out.println(ERROR_NO_PASSENGERS);
                 return;
             }
 
             System.out.println(TITLE_LIST_PASSENGERS);
-            passengers.forEach(System.out::println);
+            page.items().forEach(System.out::println);
+            while (page.hasNext() && wantsNextPage()) {
+                page = passengerService.findPage(page.nextPageToken(), PAGE_SIZE);
+                page.items().forEach(System.out::println);
+            }
         } catch (DealershipException e) {
             System.out.println(ERROR_MESSAGE_PREFIX + e.getMessage());
         }
@@ -352,6 +464,11 @@ public final class Main {
         return new Passenger(name, age, weight);
     }
 
+    private static boolean wantsNextPage() {
+        System.out.print(PROMPT_NEXT_PAGE);
+        return !scanner.nextLine().trim().equalsIgnoreCase(PROMPT_QUIT_PAGING);
+    }
+
     private static int readId(String prompt) {
         while (true) {
             System.out.print(prompt);
@@ -419,19 +536,19 @@ public final class Main {
         }
     }
 
-    private static void displayCarsWithPassengers() throws SQLException {
-        List<Car> cars = carService.findAll();
+    private static void displayCarsWithPassengers() {
+        Map<Car, List<Passenger>> carsWithPassengers = carService.findAllWithPassengers();
 
-        if (cars.isEmpty()) {
+        if (carsWithPassengers.isEmpty()) {
             System.out.println(ERROR_NO_CARS);
             return;
         }
 
-        for (Car car : cars) {
-            System.out.printf(DISPLAY_CAR_DETAILS, car);
+        for (Map.Entry<Car, List<Passenger>> entry : carsWithPassengers.entrySet()) {
+            System.out.printf(DISPLAY_CAR_DETAILS, entry.getKey());
             System.out.println();
 
-            List<Passenger> passengers = passengerService.findPassengersByCarId(car.getId());
+            List<Passenger> passengers = entry.getValue();
 
             if (passengers.isEmpty()) {
                 System.out.println(NO_PASSENGERS_IN_CAR);
@@ -454,9 +571,50 @@ public final class Main {
         System.out.println(ERROR_INVALID_OPTION);
     }
 
+    /**
+     * Measures the JDBC DAO below the cache, so the figures reflect real database calls.
+     */
+    private static <T> T instrument(Class<T> daoType, T dao) {
+        return METRICS_ENABLED ? daoMetrics.instrument(daoType, dao) : dao;
+    }
+
+    /**
+     * Merges concurrent cache misses of {@code findById} into batched queries, unless
+     * {@code dealership.loader.windowMicros} is 0. Calls inside a transaction skip it.
+     */
+    private static CarDAO coalesce(CarDAO dao) {
+        return LOADER_WINDOW.isZero() ? dao
+                : new CoalescingCarDAO(dao, LOADER_WINDOW, Main::loadsDirectly);
+    }
+
+    private static PassengerDAO coalesce(PassengerDAO dao) {
+        return LOADER_WINDOW.isZero() ? dao
+                : new CoalescingPassengerDAO(dao, LOADER_WINDOW, Main::loadsDirectly);
+    }
+
+    /**
+     * Lookups that must not join a coalesced batch: inside a transaction they read on
+     * its connection, and in a read-your-writes window they must reach the primary.
+     */
+    private static boolean loadsDirectly() {
+        TransactionAwareDataSource dataSource = DatabaseConnection.getDataSource();
+        return dataSource.isActive()
+                || dataSource.getTarget() instanceof RoutingDataSource router && router.isSessionSticky();
+    }
+
+    /**
+     * Sends the DAO's reads to the replicas when {@code db.replica.urls} is configured.
+     */
+    private static <T> T routeReads(Class<T> daoType, T dao) {
+        return DatabaseConnection.getDataSource().getTarget() instanceof RoutingDataSource router
+                ? router.routeReads(daoType, dao) : dao;
+    }
+
     private static void closeResources() {
         try {
             scanner.close();
+            daoMetrics.close();
+            passengerCountReconciler.close();
             DatabaseConnection.closeConnection();
             System.out.println(PROMPT_RESOURCES_CLOSED);
         } catch (Exception e) {
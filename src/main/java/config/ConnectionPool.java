@@ -0,0 +1,447 @@
+package config;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static utils.Constants.*;
+
+/**
+ * Bounded JDBC connection pool.
+ * Callers keep using try-with-resources: closing a borrowed connection hands the
+ * physical connection back to the pool instead of tearing down the socket.
+ */
+public final class ConnectionPool implements DataSource, AutoCloseable {
+
+    /** Connections used this recently are handed out again without a validation round trip. */
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final long IDLE_WAIT_MILLIS = 10;
+
+    private final PoolConfig config;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+    private final AtomicInteger connectionIds = new AtomicInteger();
+    private final SlowQueryLog slowQueryLog;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(PoolConfig config) {
+        this(config, SlowQueryConfig.disabled());
+    }
+
+    /**
+     * Pool whose prepared statements are also timed for the slow-query log, when enabled.
+     */
+    public ConnectionPool(PoolConfig config, SlowQueryConfig slowQueries) {
+        this.config = Objects.requireNonNull(config, ERROR_NULL_POOL_CONFIG);
+        this.slowQueryLog = slowQueries.enabled() ? new SlowQueryLog(slowQueries) : null;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, POOL_HOUSEKEEPER_THREAD);
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0,
+                config.housekeepingIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ensureOpen();
+        acquirePermit();
+        try {
+            PooledConnection pooled = acquire();
+            pooled.markBorrowed(config.leakDetectionThresholdMillis() > 0);
+            borrowed.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    public int getMaxSize() {
+        return config.maxSize();
+    }
+
+    public StatementCacheStats getStatementCacheStats() {
+        return statementCounters.snapshot();
+    }
+
+    public Optional<SlowQueryLog> getSlowQueryLog() {
+        return Optional.ofNullable(slowQueryLog);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        if (slowQueryLog != null) {
+            slowQueryLog.close();
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(config.borrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(String.format(
+                        ERROR_POOL_TIMEOUT, config.borrowTimeoutMillis(), config.maxSize()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(ERROR_POOL_INTERRUPTED, e);
+        }
+    }
+
+    private PooledConnection acquire() throws SQLException {
+        while (true) {
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled == null && reserveSlot()) {
+                return create();
+            }
+            if (pooled == null) {
+                // Every slot is taken by a connection being returned or created; wait for it.
+                pooled = awaitIdle();
+            }
+            if (pooled != null) {
+                if (isUsable(pooled)) {
+                    return pooled;
+                }
+                destroy(pooled);
+            }
+        }
+    }
+
+    private PooledConnection awaitIdle() throws SQLException {
+        try {
+            return idle.pollFirst(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(ERROR_POOL_INTERRUPTED, e);
+        }
+    }
+
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = totalConnections.get();
+            if (current >= config.maxSize()) {
+                return false;
+            }
+        } while (!totalConnections.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private PooledConnection create() throws SQLException {
+        try {
+            Connection physical = DriverManager.getConnection(config.url(), config.user(), config.password());
+            physical.setAutoCommit(true);
+            PooledConnection pooled = new PooledConnection(physical);
+            if (pooled.statementCache != null) {
+                pooled.statementCache.prewarm();
+            }
+            return pooled;
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturnedAt < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(config.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            resetState(pooled);
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            System.err.println(String.format(WARN_POOL_CONNECTION_DISCARDED, e.getMessage()));
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void resetState(PooledConnection pooled) throws SQLException {
+        Connection physical = pooled.physical;
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+            physical.setAutoCommit(true);
+        }
+        if (physical.isReadOnly()) {
+            physical.setReadOnly(false);
+        }
+        if (physical.getTransactionIsolation() != pooled.defaultIsolation) {
+            physical.setTransactionIsolation(pooled.defaultIsolation);
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            if (pooled.statementCache != null) {
+                pooled.statementCache.closeAll();
+            }
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println(String.format(WARN_POOL_CONNECTION_DISCARDED, e.getMessage()));
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            reportLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            System.err.println(String.format(WARN_POOL_CONNECTION_DISCARDED, e.getMessage()));
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && totalConnections.get() > config.minSize()) {
+            PooledConnection pooled = oldestFirst.next();
+            if (now - pooled.lastReturnedAt > config.idleTimeoutMillis() && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+    }
+
+    private void reportLeaks() {
+        long threshold = config.leakDetectionThresholdMillis();
+        if (threshold == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowed) {
+            long heldFor = now - pooled.borrowedAt;
+            if (heldFor > threshold && !pooled.leakReported) {
+                pooled.leakReported = true;
+                System.err.println(String.format(WARN_POOL_LEAK, heldFor));
+                if (pooled.borrowSite != null) {
+                    pooled.borrowSite.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < config.minSize() && reserveSlot()) {
+            try {
+                PooledConnection pooled = create();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                System.err.println(String.format(WARN_POOL_CONNECTION_DISCARDED, e.getMessage()));
+                return;
+            }
+        }
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException(ERROR_POOL_CLOSED);
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException(String.format(ERROR_UNWRAP, iface.getName()));
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private final class PooledConnection {
+        private final int id = connectionIds.incrementAndGet();
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private final int defaultIsolation;
+        private volatile long lastReturnedAt;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+            this.statementCache = config.statementCacheSize() > 0
+                    ? new StatementCache(physical, config.statementCacheSize(), statementCounters)
+                    : null;
+        }
+
+        private void markBorrowed(boolean captureSite) {
+            borrowedAt = System.currentTimeMillis();
+            borrowSite = captureSite ? new Throwable(POOL_BORROW_SITE) : null;
+            leakReported = false;
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ConnectionHandle(this));
+        }
+    }
+
+    private static boolean isCacheablePrepare(Method method, Object[] args) {
+        if (!method.getName().equals("prepareStatement")) {
+            return false;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        return types.length == 1 || (types.length == 2 && types[1] == int.class);
+    }
+
+    /**
+     * Logical connection given to callers. Each borrow gets its own handle so a stale
+     * reference cannot return the same physical connection twice.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean handleClosed;
+
+        private ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return handleClosed || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + pooled.physical;
+                }
+                default -> {
+                    if (handleClosed) {
+                        throw new SQLException(ERROR_CONNECTION_CLOSED);
+                    }
+                    Object result = invokePhysical(proxy, method, args);
+                    if (slowQueryLog != null && result instanceof PreparedStatement statement) {
+                        return StatementTimer.wrap(statement, (String) args[0], pooled.id, slowQueryLog);
+                    }
+                    return result;
+                }
+            }
+        }
+
+        private Object invokePhysical(Object proxy, Method method, Object[] args) throws Throwable {
+            if (pooled.statementCache != null && isCacheablePrepare(method, args)) {
+                int autoGeneratedKeys = args.length == 2 ? (int) args[1] : Statement.NO_GENERATED_KEYS;
+                return pooled.statementCache.prepare((Connection) proxy, (String) args[0], autoGeneratedKeys);
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,38 +1,84 @@
 package config;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.Callable;
 import static utils.Constants.*;
 
 public final class DatabaseConnection {
 
-    private static final String URL = "jdbc:mysql://localhost:3306/concesionario";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
-
-    private static Connection connection;
+    private static volatile TransactionAwareDataSource dataSource;
 
     private DatabaseConnection() {
     }
 
-    public static synchronized Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            connection.setAutoCommit(true);
+    /**
+     * Shared data source, created on first use from {@link PoolConfig#load()} and
+     * {@link SlowQueryConfig#load()}. When {@link ReplicaConfig#load()} lists replicas
+     * it is a {@link RoutingDataSource} over one pool per database. Either way it is
+     * wrapped in a {@link TransactionAwareDataSource}, so DAOs join open transactions.
+     */
+    public static TransactionAwareDataSource getDataSource() {
+        TransactionAwareDataSource current = dataSource;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = dataSource;
+                if (current == null) {
+                    ReplicaConfig replicas = ReplicaConfig.load();
+                    current = new TransactionAwareDataSource(replicas.enabled()
+                            ? RoutingDataSource.of(PoolConfig.load(), SlowQueryConfig.load(), replicas)
+                            : new ConnectionPool(PoolConfig.load(), SlowQueryConfig.load()));
+                    dataSource = current;
+                }
+            }
         }
-        return connection;
+        return current;
+    }
+
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    /**
+     * {@code task} bound to the calling thread's read-your-writes session, for handing
+     * to another thread; see {@link RoutingDataSource#inCallerSession(Runnable)}.
+     */
+    public static Runnable inCallerSession(Runnable task) {
+        TransactionAwareDataSource current = dataSource;
+        return current == null ? task : RoutingDataSource.inCallerSession(current, task);
+    }
+
+    /**
+     * Same as {@link #inCallerSession(Runnable)}, for a task with a result.
+     */
+    public static <T> Callable<T> inCallerSession(Callable<T> task) {
+        TransactionAwareDataSource current = dataSource;
+        return current == null ? task : RoutingDataSource.inCallerSession(current, task);
+    }
+
+    /**
+     * Replaces the shared pool, e.g. to point the application at an embedded database.
+     */
+    public static synchronized void configure(PoolConfig config) {
+        configure(new ConnectionPool(config));
+    }
+
+    /**
+     * Replaces the shared data source, e.g. with a {@link RoutingDataSource} over embedded databases.
+     */
+    public static synchronized void configure(DataSource replacement) {
+        closeConnection();
+        dataSource = replacement instanceof TransactionAwareDataSource transactional
+                ? transactional : new TransactionAwareDataSource(replacement);
     }
 
     public static synchronized void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-                System.out.println(DATABASE_CONNECTION_CLOSED);
-            } catch (SQLException e) {
-                System.err.println(String.format(DATABASE_CONNECTION_ERROR, e.getMessage()));
-            }
+        TransactionAwareDataSource current = dataSource;
+        if (current != null) {
+            dataSource = null;
+            current.close();
+            System.out.println(DATABASE_CONNECTION_CLOSED);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package config;
+
+import java.util.List;
+
+/**
+ * One step of the schema history, applied as an ordered list of {@link Step}s.
+ * Every step must be safe to run again: SQL uses {@code IF NOT EXISTS} or is
+ * naturally repeatable, and columns and indexes are only created when missing,
+ * because MySQL has neither {@code ADD COLUMN IF NOT EXISTS} nor
+ * {@code CREATE INDEX IF NOT EXISTS}.
+ */
+public record Migration(int version, String description, List<Step> steps) {
+
+    public Migration {
+        steps = List.copyOf(steps);
+    }
+
+    public sealed interface Step permits Sql, Column, Index {
+    }
+
+    /** Statement run as is. */
+    public record Sql(String sql) implements Step {
+    }
+
+    /** Column added unless the table already has it; {@code definition} follows the column name. */
+    public record Column(String table, String name, String definition) implements Step {
+
+        public String ddl() {
+            return "ALTER TABLE " + table + " ADD COLUMN " + name + " " + definition;
+        }
+    }
+
+    /** Secondary index, created unless an index already starts with {@code columns}. */
+    public record Index(String table, String name, List<String> columns) implements Step {
+
+        public Index {
+            columns = List.copyOf(columns);
+        }
+
+        public String ddl() {
+            return "CREATE INDEX " + name + " ON " + table + " (" + String.join(", ", columns) + ")";
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Properties;
+
+import static utils.Constants.*;
+
+/**
+ * Immutable settings for {@link ConnectionPool}.
+ * Values are read from {@code database.properties} on the classpath and can be
+ * overridden with system properties using the same keys (e.g. {@code -Ddb.url=...}).
+ */
+public record PoolConfig(String url,
+                         String user,
+                         String password,
+                         int minSize,
+                         int maxSize,
+                         long idleTimeoutMillis,
+                         long borrowTimeoutMillis,
+                         long leakDetectionThresholdMillis,
+                         int validationTimeoutSeconds,
+                         long housekeepingIntervalMillis,
+                         int statementCacheSize) {
+
+    private static final String CONFIG_RESOURCE = "database.properties";
+
+    public static final String KEY_URL = "db.url";
+    public static final String KEY_USER = "db.user";
+    public static final String KEY_PASSWORD = "db.password";
+    public static final String KEY_MIN_SIZE = "db.pool.minSize";
+    public static final String KEY_MAX_SIZE = "db.pool.maxSize";
+    public static final String KEY_IDLE_TIMEOUT = "db.pool.idleTimeoutMs";
+    public static final String KEY_BORROW_TIMEOUT = "db.pool.borrowTimeoutMs";
+    public static final String KEY_LEAK_THRESHOLD = "db.pool.leakDetectionThresholdMs";
+    public static final String KEY_VALIDATION_TIMEOUT = "db.pool.validationTimeoutSeconds";
+    public static final String KEY_HOUSEKEEPING_INTERVAL = "db.pool.housekeepingIntervalMs";
+    public static final String KEY_STATEMENT_CACHE_SIZE = "db.pool.statementCacheSize";
+
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/concesionario";
+    private static final String DEFAULT_USER = "root";
+    private static final String DEFAULT_PASSWORD = "";
+    private static final int DEFAULT_MIN_SIZE = 2;
+    private static final int DEFAULT_MAX_SIZE = 10;
+    private static final long DEFAULT_IDLE_TIMEOUT = 600_000;
+    private static final long DEFAULT_BORROW_TIMEOUT = 30_000;
+    private static final long DEFAULT_LEAK_THRESHOLD = 60_000;
+    private static final int DEFAULT_VALIDATION_TIMEOUT = 5;
+    private static final long DEFAULT_HOUSEKEEPING_INTERVAL = 30_000;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    public PoolConfig {
+        Objects.requireNonNull(url, String.format(ERROR_POOL_CONFIG, KEY_URL));
+        Objects.requireNonNull(user, String.format(ERROR_POOL_CONFIG, KEY_USER));
+        password = password == null ? "" : password;
+        requireThat(minSize >= 0, KEY_MIN_SIZE);
+        requireThat(maxSize > 0 && maxSize >= minSize, KEY_MAX_SIZE);
+        requireThat(idleTimeoutMillis > 0, KEY_IDLE_TIMEOUT);
+        requireThat(borrowTimeoutMillis > 0, KEY_BORROW_TIMEOUT);
+        requireThat(leakDetectionThresholdMillis >= 0, KEY_LEAK_THRESHOLD);
+        requireThat(validationTimeoutSeconds >= 0, KEY_VALIDATION_TIMEOUT);
+        requireThat(housekeepingIntervalMillis > 0, KEY_HOUSEKEEPING_INTERVAL);
+        requireThat(statementCacheSize >= 0, KEY_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Settings for the given JDBC URL with default pool sizing, e.g. for an embedded database.
+     */
+    public static PoolConfig of(String url, String user, String password) {
+        return new PoolConfig(url, user, password, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE,
+                DEFAULT_IDLE_TIMEOUT, DEFAULT_BORROW_TIMEOUT, DEFAULT_LEAK_THRESHOLD,
+                DEFAULT_VALIDATION_TIMEOUT, DEFAULT_HOUSEKEEPING_INTERVAL, DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Same settings against another database, e.g. a read replica.
+     */
+    public PoolConfig withUrl(String url) {
+        return new PoolConfig(url, user, password, minSize, maxSize, idleTimeoutMillis, borrowTimeoutMillis,
+                leakDetectionThresholdMillis, validationTimeoutSeconds, housekeepingIntervalMillis, statementCacheSize);
+    }
+
+    public static PoolConfig load() {
+        return fromProperties(loadProperties());
+    }
+
+    /**
+     * {@code database.properties} from the classpath overlaid with the system properties.
+     */
+    static Properties loadProperties() {
+        Properties properties = new Properties();
+        try (InputStream in = PoolConfig.class.getClassLoader().getResourceAsStream(CONFIG_RESOURCE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(ERROR_POOL_CONFIG_LOAD, CONFIG_RESOURCE), e);
+        }
+        properties.putAll(System.getProperties());
+        return properties;
+    }
+
+    public static PoolConfig fromProperties(Properties properties) {
+        return new PoolConfig(
+                properties.getProperty(KEY_URL, DEFAULT_URL),
+                properties.getProperty(KEY_USER, DEFAULT_USER),
+                properties.getProperty(KEY_PASSWORD, DEFAULT_PASSWORD),
+                intProperty(properties, KEY_MIN_SIZE, DEFAULT_MIN_SIZE),
+                intProperty(properties, KEY_MAX_SIZE, DEFAULT_MAX_SIZE),
+                longProperty(properties, KEY_IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT),
+                longProperty(properties, KEY_BORROW_TIMEOUT, DEFAULT_BORROW_TIMEOUT),
+                longProperty(properties, KEY_LEAK_THRESHOLD, DEFAULT_LEAK_THRESHOLD),
+                intProperty(properties, KEY_VALIDATION_TIMEOUT, DEFAULT_VALIDATION_TIMEOUT),
+                longProperty(properties, KEY_HOUSEKEEPING_INTERVAL, DEFAULT_HOUSEKEEPING_INTERVAL),
+                intProperty(properties, KEY_STATEMENT_CACHE_SIZE, DEFAULT_STATEMENT_CACHE_SIZE));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolConfig{url='%s', user='%s', min=%d, max=%d}", url, user, minSize, maxSize);
+    }
+
+    static int intProperty(Properties properties, String key, int defaultValue) {
+        return (int) longProperty(properties, key, defaultValue);
+    }
+
+    static long longProperty(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(ERROR_POOL_CONFIG, key), e);
+        }
+    }
+
+    static void requireThat(boolean condition, String key) {
+        if (!condition) {
+            throw new IllegalArgumentException(String.format(ERROR_POOL_CONFIG, key));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package config;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static config.PoolConfig.longProperty;
+import static config.PoolConfig.requireThat;
+import static utils.Constants.*;
+
+/**
+ * Read replicas for {@link RoutingDataSource}, read from the same sources as {@link PoolConfig}.
+ * Replicas use the primary's credentials and pool sizing. Without {@code db.replica.urls}
+ * every query goes to the primary.
+ *
+ * @param stickinessMillis how long a session keeps reading from the primary after it wrote
+ */
+public record ReplicaConfig(List<String> urls,
+                            RoutingDataSource.Selection selection,
+                            long stickinessMillis) {
+
+    public static final String KEY_URLS = "db.replica.urls";
+    public static final String KEY_SELECTION = "db.replica.selection";
+    public static final String KEY_STICKINESS = "db.replica.stickinessMs";
+
+    private static final long DEFAULT_STICKINESS = 1_000;
+
+    public ReplicaConfig {
+        urls = urls == null ? List.of() : List.copyOf(urls);
+        requireThat(selection != null, KEY_SELECTION);
+        requireThat(stickinessMillis >= 0, KEY_STICKINESS);
+    }
+
+    public boolean enabled() {
+        return !urls.isEmpty();
+    }
+
+    public static ReplicaConfig load() {
+        return fromProperties(PoolConfig.loadProperties());
+    }
+
+    public static ReplicaConfig fromProperties(Properties properties) {
+        return new ReplicaConfig(
+                Arrays.stream(properties.getProperty(KEY_URLS, "").split(","))
+                        .map(String::trim)
+                        .filter(url -> !url.isEmpty())
+                        .toList(),
+                selection(properties),
+                longProperty(properties, KEY_STICKINESS, DEFAULT_STICKINESS));
+    }
+
+    private static RoutingDataSource.Selection selection(Properties properties) {
+        String value = properties.getProperty(KEY_SELECTION, RoutingDataSource.Selection.ROUND_ROBIN.name());
+        try {
+            return RoutingDataSource.Selection.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(ERROR_POOL_CONFIG, KEY_SELECTION), e);
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package config;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import static utils.Constants.*;
+
+/**
+ * Sends reads to replicas and everything else to the primary.
+ * A connection is a read when it is borrowed inside a read-only DAO method of a DAO
+ * wrapped with {@link #routeReads(Class, Object)}; any other borrower gets the primary.
+ * <p>
+ * After a write, the session that made it reads from the primary for the stickiness
+ * window, so it sees its own changes despite replication lag. A session belongs to the
+ * thread that wrote. Tasks handed to other threads join the caller's session only when
+ * wrapped with {@link #inCallerSession(Runnable)} (as {@code ServiceExecutor} calls and
+ * import workers are); a thread started afterwards begins with a copy of its parent's.
+ * A replica that fails to hand out a connection is skipped for a few seconds.
+ */
+public final class RoutingDataSource implements DataSource, AutoCloseable {
+
+    /** DAO methods whose name starts with one of these only read. */
+    private static final Set<String> READ_METHOD_PREFIXES =
+            Set.of("find", "exists", "is", "get", "stream", "forEach");
+    private static final long REPLICA_RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    public enum Selection {
+        ROUND_ROBIN,
+        /** Replica with the lowest moving average of read call time. */
+        LEAST_LATENCY
+    }
+
+    /** Current state of one replica. */
+    public record ReplicaStatus(String name, long connections, double latencyMillis, boolean available) {
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final long stickinessNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final ThreadLocal<ReadScope> readScope = new ThreadLocal<>();
+    private final InheritableThreadLocal<Session> session = new InheritableThreadLocal<>() {
+        @Override
+        protected Session initialValue() {
+            return new Session();
+        }
+
+        @Override
+        protected Session childValue(Session parent) {
+            return parent.copy();
+        }
+    };
+
+    public RoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+                             Selection selection, Duration stickiness) {
+        this.primary = Objects.requireNonNull(primary, ERROR_NULL_DATA_SOURCE);
+        this.selection = Objects.requireNonNull(selection);
+        this.stickinessNanos = stickiness.toNanos();
+        List<Replica> list = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            list.add(new Replica(REPLICA_NAME_PREFIX + i,
+                    Objects.requireNonNull(replicas.get(i), ERROR_NULL_DATA_SOURCE)));
+        }
+        this.replicas = List.copyOf(list);
+    }
+
+    /**
+     * Primary pool plus one pool per replica URL, all with the primary's settings.
+     */
+    public static RoutingDataSource of(PoolConfig primary, SlowQueryConfig slowQueries, ReplicaConfig replicas) {
+        List<ConnectionPool> pools = new ArrayList<>(replicas.urls().size());
+        for (String url : replicas.urls()) {
+            pools.add(new ConnectionPool(primary.withUrl(url), slowQueries));
+        }
+        return new RoutingDataSource(new ConnectionPool(primary, slowQueries), pools,
+                replicas.selection(), Duration.ofMillis(replicas.stickinessMillis()));
+    }
+
+    /**
+     * Wraps {@code dao} so the connections borrowed by its read-only methods
+     * ({@code find*}, {@code exists*}, {@code is*}, {@code get*}, {@code stream},
+     * {@code forEach}) come from a replica, and its other methods start the
+     * read-your-writes window of the calling session.
+     */
+    public <T> T routeReads(Class<T> daoType, T dao) {
+        Objects.requireNonNull(dao, ERROR_NULL_DAO_TARGET);
+        if (!daoType.isInterface()) {
+            throw new IllegalArgumentException(String.format(ERROR_NOT_AN_INTERFACE, daoType.getName()));
+        }
+        return daoType.cast(Proxy.newProxyInstance(
+                daoType.getClassLoader(),
+                new Class<?>[]{daoType},
+                new ReadRouter(dao)));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReadScope scope = readScope.get();
+        if (scope == null || session.get().isSticky()) {
+            return borrowPrimary();
+        }
+        if (scope.replica == null) {
+            scope.replica = selectReplica();
+        }
+        while (scope.replica != null) {
+            Replica replica = scope.replica;
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.connections.increment();
+                return connection;
+            } catch (SQLException e) {
+                System.err.println(String.format(WARN_REPLICA_UNAVAILABLE, replica.name, e.getMessage()));
+                replica.retryAfter = System.nanoTime() + REPLICA_RETRY_NANOS;
+                scope.replica = selectReplica();
+            }
+        }
+        return borrowPrimary();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * True while the calling thread's session is in its read-your-writes window,
+     * i.e. its reads go to the primary.
+     */
+    public boolean isSessionSticky() {
+        return session.get().isSticky();
+    }
+
+    /**
+     * {@code task} run in the calling thread's session, whichever thread runs it:
+     * its reads see the caller's recent writes and its writes make the caller sticky.
+     */
+    public Runnable inCallerSession(Runnable task) {
+        Session caller = session.get();
+        return () -> {
+            Session previous = session.get();
+            session.set(caller);
+            try {
+                task.run();
+            } finally {
+                session.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Same as {@link #inCallerSession(Runnable)}, for a task with a result.
+     */
+    public <T> Callable<T> inCallerSession(Callable<T> task) {
+        Session caller = session.get();
+        return () -> {
+            Session previous = session.get();
+            session.set(caller);
+            try {
+                return task.call();
+            } finally {
+                session.set(previous);
+            }
+        };
+    }
+
+    /**
+     * {@code task} run in the caller's session of the router behind {@code dataSource},
+     * or {@code task} itself when {@code dataSource} does not route reads.
+     */
+    public static Runnable inCallerSession(DataSource dataSource, Runnable task) {
+        RoutingDataSource router = routerOf(dataSource);
+        return router == null ? task : router.inCallerSession(task);
+    }
+
+    /**
+     * Same as {@link #inCallerSession(DataSource, Runnable)}, for a task with a result.
+     */
+    public static <T> Callable<T> inCallerSession(DataSource dataSource, Callable<T> task) {
+        RoutingDataSource router = routerOf(dataSource);
+        return router == null ? task : router.inCallerSession(task);
+    }
+
+    public long getPrimaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    public List<ReplicaStatus> getReplicaStatus() {
+        List<ReplicaStatus> status = new ArrayList<>(replicas.size());
+        long now = System.nanoTime();
+        for (Replica replica : replicas) {
+            status.add(new ReplicaStatus(replica.name, replica.connections.sum(),
+                    replica.latencyNanos() / 1e6, replica.isAvailable(now)));
+        }
+        return status;
+    }
+
+    /**
+     * Closes the primary and replica data sources that are {@link AutoCloseable}.
+     */
+    @Override
+    public void close() {
+        closeQuietly(primary);
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    private Connection borrowPrimary() throws SQLException {
+        Connection connection = primary.getConnection();
+        primaryConnections.increment();
+        return connection;
+    }
+
+    private Replica selectReplica() {
+        long now = System.nanoTime();
+        Replica selected = null;
+        int size = replicas.size();
+        if (selection == Selection.ROUND_ROBIN) {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+            for (int i = 0; i < size && selected == null; i++) {
+                Replica candidate = replicas.get((start + i) % size);
+                if (candidate.isAvailable(now)) {
+                    selected = candidate;
+                }
+            }
+        } else {
+            for (Replica candidate : replicas) {
+                if (candidate.isAvailable(now)
+                        && (selected == null || candidate.latencyNanos() < selected.latencyNanos())) {
+                    selected = candidate;
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static RoutingDataSource routerOf(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(RoutingDataSource.class)
+                    ? dataSource.unwrap(RoutingDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                System.err.println(String.format(WARN_REPLICA_CLOSE, e.getMessage()));
+            }
+        }
+    }
+
+    private static boolean isRead(Method method) {
+        String name = method.getName();
+        for (String prefix : READ_METHOD_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Replica chosen for the read-only DAO call running on this thread. */
+    private static final class ReadScope {
+        private Replica replica;
+    }
+
+    private final class Session {
+        private volatile long lastWriteNanos;
+        private volatile boolean wrote;
+
+        private void markWrite() {
+            lastWriteNanos = System.nanoTime();
+            wrote = true;
+        }
+
+        private boolean isSticky() {
+            return wrote && System.nanoTime() - lastWriteNanos < stickinessNanos;
+        }
+
+        private Session copy() {
+            Session copy = new Session();
+            copy.lastWriteNanos = lastWriteNanos;
+            copy.wrote = wrote;
+            return copy;
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder connections = new LongAdder();
+        /** Moving average of read call time, stored as {@code double} bits. */
+        private final AtomicLong latency = new AtomicLong(Double.doubleToLongBits(0.0));
+        private volatile long retryAfter;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private boolean isAvailable(long now) {
+            return now - retryAfter >= 0;
+        }
+
+        private double latencyNanos() {
+            return Double.longBitsToDouble(latency.get());
+        }
+
+        private void recordLatency(long nanos) {
+            latency.updateAndGet(bits -> {
+                double average = Double.longBitsToDouble(bits);
+                double updated = average == 0.0 ? nanos : average + LATENCY_SMOOTHING * (nanos - average);
+                return Double.doubleToLongBits(updated);
+            });
+        }
+    }
+
+    private final class ReadRouter implements InvocationHandler {
+        private final Object target;
+
+        private ReadRouter(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeTarget(method, args);
+            }
+            ReadScope outer = readScope.get();
+            if (!isRead(method)) {
+                // Writes may run inside a read, e.g. from a forEach callback; they always use the primary.
+                Session current = session.get();
+                readScope.remove();
+                current.markWrite();
+                try {
+                    return invokeTarget(method, args);
+                } finally {
+                    current.markWrite();
+                    readScope.set(outer);
+                }
+            }
+            if (outer != null) {
+                return invokeTarget(method, args);
+            }
+
+            ReadScope scope = new ReadScope();
+            readScope.set(scope);
+            long start = System.nanoTime();
+            try {
+                return invokeTarget(method, args);
+            } finally {
+                readScope.remove();
+                if (scope.replica != null) {
+                    scope.replica.recordLatency(System.nanoTime() - start);
+                }
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,29 +1,159 @@
 package config;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public final class SQLQueries {
 
+    /** Largest number of bind parameters placed in a single {@code IN (...)} list. */
+    public static final int MAX_IN_PARAMETERS = 1000;
+
+    private static final String ROWS_PLACEHOLDER = "VALUES %s";
+
+    private static final Map<String, String> CATALOG = buildCatalog();
+    private static final Map<String, String> NAMES_BY_SQL = buildNamesBySql();
+
     private SQLQueries() {
     }
 
+    /**
+     * Every query constant declared in the nested query classes, keyed by
+     * {@code Class.FIELD} (e.g. {@code CarQueries.INSERT}), in declaration order.
+     */
+    public static Map<String, String> catalog() {
+        return CATALOG;
+    }
+
+    /**
+     * Catalog name of {@code sql}, also for templates already expanded with
+     * {@link #withPlaceholders(String, int)}; {@code null} for ad hoc SQL.
+     */
+    public static String nameOf(String sql) {
+        String name = NAMES_BY_SQL.get(sql);
+        if (name != null) {
+            return name;
+        }
+        for (Map.Entry<String, String> entry : CATALOG.entrySet()) {
+            String query = entry.getValue();
+            if (!isStatic(query) && sql.startsWith(query.substring(0, query.indexOf("%s")))) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * True for queries that are complete SQL, as opposed to templates that
+     * still need {@link #withPlaceholders(String, int)}.
+     */
+    public static boolean isStatic(String query) {
+        return !query.contains("%s");
+    }
+
+    /**
+     * Expands a query containing one {@code %s} into an {@code IN} list of {@code count} placeholders.
+     */
+    public static String withPlaceholders(String query, int count) {
+        return String.format(query, String.join(", ", Collections.nCopies(count, "?")));
+    }
+
+    /**
+     * True for multi-row {@code INSERT} templates, which take {@link #withRows(String, int)}.
+     */
+    public static boolean isMultiRow(String query) {
+        return query.contains(ROWS_PLACEHOLDER);
+    }
+
+    /**
+     * Expands a multi-row {@code INSERT ... VALUES %s} template into {@code rows} tuples,
+     * each with one placeholder per column of the insert column list.
+     */
+    public static String withRows(String query, int rows) {
+        int columns = query.substring(query.indexOf('('), query.indexOf(')')).split(",").length;
+        String row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+        return String.format(query, String.join(", ", Collections.nCopies(rows, row)));
+    }
+
+    private static Map<String, String> buildCatalog() {
+        Map<String, String> catalog = new LinkedHashMap<>();
+        for (Class<?> queries : new Class<?>[]{CarQueries.class, PassengerQueries.class, CarPassengerQueries.class}) {
+            for (Field field : queries.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) && Modifier.isPublic(modifiers) && field.getType() == String.class) {
+                    try {
+                        catalog.put(queries.getSimpleName() + "." + field.getName(), (String) field.get(null));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableMap(catalog);
+    }
+
+    private static Map<String, String> buildNamesBySql() {
+        Map<String, String> names = new HashMap<>();
+        CATALOG.forEach((name, sql) -> names.putIfAbsent(sql, name));
+        return names;
+    }
+
     public static final class CarQueries {
         public static final String INSERT =
                 "INSERT INTO cars (license_plate, brand, model, color) VALUES (?, ?, ?, ?)";
 
         public static final String UPDATE =
-                "UPDATE cars SET license_plate = ?, brand = ?, model = ?, color = ? WHERE id = ?";
+                "UPDATE cars SET license_plate = ?, brand = ?, model = ?, color = ?, version = version + 1 " +
+                        "WHERE id = ? AND version = ?";
+
+        /**
+         * Multi-row insert keyed on the unique license plate. {@code version} is assigned
+         * first because MySQL evaluates the assignments in order, so the comparison
+         * still sees the stored values; identical rows keep their version.
+         */
+        public static final String UPSERT =
+                "INSERT INTO cars (license_plate, brand, model, color) VALUES %s " +
+                        "ON DUPLICATE KEY UPDATE " +
+                        "version = version + (CASE WHEN brand = VALUES(brand) AND model = VALUES(model) " +
+                        "AND color = VALUES(color) THEN 0 ELSE 1 END), " +
+                        "brand = VALUES(brand), model = VALUES(model), color = VALUES(color)";
 
         public static final String DELETE =
                 "DELETE FROM cars WHERE id = ?";
 
+        public static final String DELETE_BY_IDS =
+                "DELETE FROM cars WHERE id IN (%s)";
+
         public static final String FIND_BY_ID =
-                "SELECT id, license_plate, brand, model, color FROM cars WHERE id = ?";
+                "SELECT id, license_plate, brand, model, color, version FROM cars WHERE id = ?";
+
+        public static final String FIND_BY_IDS =
+                "SELECT id, license_plate, brand, model, color, version FROM cars WHERE id IN (%s)";
+
+        public static final String LOCK_BY_ID =
+                "SELECT id, license_plate, brand, model, color, version FROM cars WHERE id = ? FOR UPDATE";
 
         public static final String FIND_ALL =
-                "SELECT id, license_plate, brand, model, color FROM cars";
+                "SELECT id, license_plate, brand, model, color, version FROM cars";
+
+        public static final String FIND_PAGE =
+                "SELECT id, license_plate, brand, model, color, version FROM cars WHERE id > ? ORDER BY id LIMIT ?";
+
+        public static final String EXISTS_BY_ID =
+                "SELECT COUNT(*) FROM cars WHERE id = ?";
+
+        public static final String MAX_ID =
+                "SELECT COALESCE(MAX(id), 0) FROM cars";
 
         public static final String EXISTS_BY_LICENSE_PLATE =
                 "SELECT COUNT(*) FROM cars WHERE license_plate = ?";
 
+        public static final String FIND_EXISTING_LICENSE_PLATES =
+                "SELECT license_plate FROM cars WHERE license_plate IN (%s)";
+
         private CarQueries() {
         }
     }
@@ -33,16 +163,25 @@ public final class SQLQueries {
                 "INSERT INTO passengers (name, age, weight) VALUES (?, ?, ?)";
 
         public static final String UPDATE =
-                "UPDATE passengers SET name = ?, age = ?, weight = ? WHERE id = ?";
+                "UPDATE passengers SET name = ?, age = ?, weight = ?, version = version + 1 WHERE id = ? AND version = ?";
 
         public static final String DELETE =
                 "DELETE FROM passengers WHERE id = ?";
 
         public static final String FIND_BY_ID =
-                "SELECT id, name, age, weight FROM passengers WHERE id = ?";
+                "SELECT id, name, age, weight, version FROM passengers WHERE id = ?";
+
+        public static final String FIND_BY_IDS =
+                "SELECT id, name, age, weight, version FROM passengers WHERE id IN (%s)";
 
         public static final String FIND_ALL =
-                "SELECT id, name, age, weight FROM passengers";
+                "SELECT id, name, age, weight, version FROM passengers";
+
+        public static final String FIND_PAGE =
+                "SELECT id, name, age, weight, version FROM passengers WHERE id > ? ORDER BY id LIMIT ?";
+
+        public static final String EXISTS_BY_ID =
+                "SELECT COUNT(*) FROM passengers WHERE id = ?";
 
         private PassengerQueries() {
         }
@@ -52,20 +191,121 @@ public final class SQLQueries {
         public static final String ADD_PASSENGER_TO_CAR =
                 "INSERT INTO car_passengers (car_id, passenger_id) VALUES (?, ?)";
 
+        public static final String LOCK_CAR =
+                "SELECT passenger_count FROM cars WHERE id = ? FOR UPDATE";
+
+        public static final String ADD_EXISTING_PASSENGER_TO_CAR =
+                "INSERT INTO car_passengers (car_id, passenger_id) " +
+                        "SELECT ?, p.id FROM passengers p WHERE p.id = ?";
+
+        public static final String ADD_EXISTING_PASSENGERS_TO_CAR =
+                "INSERT INTO car_passengers (car_id, passenger_id) " +
+                        "SELECT ?, p.id FROM passengers p WHERE p.id IN (%s)";
+
+        public static final String MOVE_PASSENGERS =
+                "UPDATE car_passengers SET car_id = ? WHERE car_id = ?";
+
+        /** Takes a seat only while the car is below the given capacity; also locks the car row. */
+        public static final String RESERVE_SEAT =
+                "UPDATE cars SET passenger_count = passenger_count + 1 WHERE id = ? AND passenger_count < ?";
+
+        public static final String RELEASE_SEAT =
+                "UPDATE cars SET passenger_count = passenger_count - 1 WHERE id = ? AND passenger_count > 0";
+
+        public static final String FIND_PASSENGER_COUNT =
+                "SELECT passenger_count FROM cars WHERE id = ?";
+
+        public static final String SET_PASSENGER_COUNT =
+                "UPDATE cars SET passenger_count = ? WHERE id = ?";
+
+        /** Cars in the id range {@code (?, ?]} whose counter disagrees with their assignments. */
+        public static final String FIND_PASSENGER_COUNT_DRIFT =
+                "SELECT c.id FROM cars c LEFT JOIN car_passengers cp ON cp.car_id = c.id " +
+                        "WHERE c.id > ? AND c.id <= ? GROUP BY c.id, c.passenger_count " +
+                        "HAVING c.passenger_count <> COUNT(cp.car_id)";
+
         public static final String REMOVE_PASSENGER_FROM_CAR =
                 "DELETE FROM car_passengers WHERE car_id = ? AND passenger_id = ?";
 
+        public static final String REMOVE_ALL_FROM_CAR =
+                "DELETE FROM car_passengers WHERE car_id = ?";
+
+        public static final String REMOVE_ALL_FROM_CARS =
+                "DELETE FROM car_passengers WHERE car_id IN (%s)";
+
         public static final String FIND_PASSENGERS_BY_CAR =
-                "SELECT p.id, p.name, p.age, p.weight FROM passengers p " +
+                "SELECT p.id, p.name, p.age, p.weight, p.version FROM passengers p " +
                         "JOIN car_passengers cp ON p.id = cp.passenger_id WHERE cp.car_id = ?";
 
+        public static final String FIND_ALL_CARS_WITH_PASSENGERS =
+                "SELECT c.id, c.license_plate, c.brand, c.model, c.color, c.version, " +
+                        "p.id AS passenger_id, p.name, p.age, p.weight, p.version AS passenger_version " +
+                        "FROM cars c " +
+                        "LEFT JOIN car_passengers cp ON c.id = cp.car_id " +
+                        "LEFT JOIN passengers p ON p.id = cp.passenger_id ORDER BY c.id, p.id";
+
         public static final String COUNT_PASSENGERS_IN_CAR =
                 "SELECT COUNT(*) FROM car_passengers WHERE car_id = ?";
 
+        /** Stops at the first assignment found in the passenger_id index. */
         public static final String CHECK_PASSENGER_IN_CAR =
-                "SELECT COUNT(*) FROM car_passengers WHERE passenger_id = ?";
+                "SELECT EXISTS (SELECT 1 FROM car_passengers WHERE passenger_id = ? LIMIT 1)";
+
+        public static final String FIND_CARS_BY_PASSENGER =
+                "SELECT c.id, c.license_plate, c.brand, c.model, c.color, c.version FROM cars c " +
+                        "JOIN car_passengers cp ON c.id = cp.car_id WHERE cp.passenger_id = ?";
+
+        public static final String FIND_CARS_BY_PASSENGERS =
+                "SELECT cp.passenger_id, c.id, c.license_plate, c.brand, c.model, c.color, c.version " +
+                        "FROM car_passengers cp JOIN cars c ON c.id = cp.car_id WHERE cp.passenger_id IN (%s)";
+
+        public static final String FIND_ALL =
+                "SELECT car_id, passenger_id FROM car_passengers";
 
         private CarPassengerQueries() {
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * MySQL statements used to give several connections the same snapshot for an
+     * export. Not part of {@link #catalog()}: they are not prepared ahead of time.
+     */
+    public static final class SnapshotQueries {
+        public static final String LOCK_TABLES =
+                "LOCK TABLES cars READ, passengers READ, car_passengers READ";
+
+        public static final String UNLOCK_TABLES = "UNLOCK TABLES";
+
+        public static final String START_CONSISTENT_SNAPSHOT =
+                "START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY";
+
+        private SnapshotQueries() {
+        }
+    }
+
+    /**
+     * Bookkeeping statements of {@link SchemaMigrator}. Not part of {@link #catalog()}:
+     * they run once at startup, before the schema they describe exists.
+     */
+    public static final class SchemaQueries {
+        public static final String CREATE_VERSION_TABLE =
+                "CREATE TABLE IF NOT EXISTS schema_version (" +
+                        "version INT PRIMARY KEY, " +
+                        "description VARCHAR(200) NOT NULL, " +
+                        "installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+        public static final String CURRENT_VERSION =
+                "SELECT COALESCE(MAX(version), 0) FROM schema_version";
+
+        public static final String INSERT_VERSION =
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+
+        /** MySQL named lock, so two instances starting together do not migrate at once. */
+        public static final String ACQUIRE_LOCK = "SELECT GET_LOCK('dealership_schema', ?)";
+
+        public static final String RELEASE_LOCK = "SELECT RELEASE_LOCK('dealership_schema')";
+
+        private SchemaQueries() {
+        }
+    }
+}
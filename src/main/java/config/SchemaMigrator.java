@@ -0,0 +1,223 @@
+package config;
+
+import config.SQLQueries.SchemaQueries;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static utils.Constants.*;
+
+/**
+ * Owns the DDL of the application tables and brings a database up to the latest
+ * {@link Migration}. Applied versions are recorded in {@code schema_version}; every
+ * step is idempotent, so a database created by hand from the readme, or a run that
+ * failed halfway, is simply completed.
+ */
+public final class SchemaMigrator {
+
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Tablas de coches, pasajeros y asignaciones", List.of(
+                    new Migration.Sql("CREATE TABLE IF NOT EXISTS cars (" +
+                            "id INT PRIMARY KEY AUTO_INCREMENT, " +
+                            "license_plate VARCHAR(7) UNIQUE, " +
+                            "brand VARCHAR(50), " +
+                            "model VARCHAR(50), " +
+                            "color VARCHAR(30))"),
+                    new Migration.Sql("CREATE TABLE IF NOT EXISTS passengers (" +
+                            "id INT PRIMARY KEY AUTO_INCREMENT, " +
+                            "name VARCHAR(100), " +
+                            "age INT, " +
+                            "weight DOUBLE)"),
+                    new Migration.Sql("CREATE TABLE IF NOT EXISTS car_passengers (" +
+                            "car_id INT, " +
+                            "passenger_id INT, " +
+                            "PRIMARY KEY (car_id, passenger_id), " +
+                            "FOREIGN KEY (car_id) REFERENCES cars(id), " +
+                            "FOREIGN KEY (passenger_id) REFERENCES passengers(id))"))),
+            // The primary key serves the car_id lookups; CHECK_PASSENGER_IN_CAR and the
+            // FIND_CARS_BY_PASSENGER queries filter on passenger_id alone.
+            new Migration(2, "Índice de asignaciones por pasajero", List.of(
+                    new Migration.Index("car_passengers", "idx_car_passengers_passenger",
+                            List.of("passenger_id", "car_id")))),
+            new Migration(3, "Contador de pasajeros por coche", List.of(
+                    new Migration.Column("cars", "passenger_count", "INT NOT NULL DEFAULT 0"),
+                    new Migration.Sql("UPDATE cars SET passenger_count = " +
+                            "(SELECT COUNT(*) FROM car_passengers cp WHERE cp.car_id = cars.id)"))),
+            new Migration(4, "Versión de fila para actualizaciones optimistas", List.of(
+                    new Migration.Column("cars", "version", "INT NOT NULL DEFAULT 0"),
+                    new Migration.Column("passengers", "version", "INT NOT NULL DEFAULT 0"))));
+
+    private final DataSource dataSource;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, ERROR_NULL_DATA_SOURCE);
+    }
+
+    public static List<Migration> migrations() {
+        return MIGRATIONS;
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+
+    /**
+     * Applies every migration newer than the recorded version.
+     *
+     * @return the schema version after migrating
+     */
+    public int migrate() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean locked = acquireLock(conn);
+            try {
+                execute(conn, SchemaQueries.CREATE_VERSION_TABLE);
+                int current = currentVersion(conn);
+                if (current > latestVersion()) {
+                    System.err.println(String.format(WARN_SCHEMA_NEWER, current, latestVersion()));
+                    return current;
+                }
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version() > current) {
+                        apply(conn, migration);
+                        current = migration.version();
+                    }
+                }
+                return current;
+            } finally {
+                if (locked) {
+                    execute(conn, SchemaQueries.RELEASE_LOCK);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recorded schema version; 0 for a database that was never migrated.
+     */
+    public int currentVersion() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            execute(conn, SchemaQueries.CREATE_VERSION_TABLE);
+            return currentVersion(conn);
+        }
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        for (Migration.Step step : migration.steps()) {
+            switch (step) {
+                case Migration.Sql sql -> execute(conn, sql.sql());
+                case Migration.Column column -> {
+                    if (!hasColumn(conn, column)) {
+                        execute(conn, column.ddl());
+                    }
+                }
+                case Migration.Index index -> {
+                    if (!hasIndex(conn, index)) {
+                        execute(conn, index.ddl());
+                    }
+                }
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(SchemaQueries.INSERT_VERSION)) {
+            pstmt.setInt(1, migration.version());
+            pstmt.setString(2, migration.description());
+            pstmt.executeUpdate();
+        }
+        System.out.println(String.format(SCHEMA_MIGRATED, migration.version(), migration.description()));
+    }
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SchemaQueries.CURRENT_VERSION)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static boolean hasColumn(Connection conn, Migration.Column column) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getColumns(conn.getCatalog(), conn.getSchema(),
+                identifier(metaData, column.table()), identifier(metaData, column.name()))) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * True if an index (including the primary key or a foreign key's implicit index)
+     * already starts with the requested columns.
+     */
+    private static boolean hasIndex(Connection conn, Migration.Index index) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        String table = identifier(metaData, index.table());
+        Map<String, Map<Integer, String>> columnsByIndex = new HashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), conn.getSchema(), table, false, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (name != null && column != null) {
+                    columnsByIndex.computeIfAbsent(name, key -> new TreeMap<>())
+                            .put((int) rs.getShort("ORDINAL_POSITION"), column);
+                }
+            }
+        }
+        for (Map<Integer, String> columns : columnsByIndex.values()) {
+            List<String> ordered = new ArrayList<>(columns.values());
+            if (ordered.size() >= index.columns().size()
+                    && startsWith(ordered, index.columns())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        return metaData.storesUpperCaseIdentifiers() ? name.toUpperCase(Locale.ROOT) : name;
+    }
+
+    private static boolean startsWith(List<String> columns, List<String> prefix) {
+        for (int i = 0; i < prefix.size(); i++) {
+            if (!columns.get(i).equalsIgnoreCase(prefix.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        if (!isMySql(conn)) {
+            return false;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(SchemaQueries.ACQUIRE_LOCK)) {
+            pstmt.setInt(1, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException(String.format(ERROR_SCHEMA_LOCK, LOCK_TIMEOUT_SECONDS));
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isMySql(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        return product.contains("mysql") || product.contains("mariadb");
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package config;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static config.PoolConfig.intProperty;
+import static config.PoolConfig.longProperty;
+import static config.PoolConfig.requireThat;
+import static utils.Constants.*;
+
+/**
+ * Settings for {@link SlowQueryLog}, read from the same sources as {@link PoolConfig}.
+ *
+ * @param filePattern     {@link java.util.logging.FileHandler} pattern; {@code %g} is the rotation number
+ * @param redactedQueries catalog name prefixes (e.g. {@code PassengerQueries}) whose text parameters are masked
+ */
+public record SlowQueryConfig(boolean enabled,
+                              long thresholdMillis,
+                              double sampleRate,
+                              String filePattern,
+                              int maxFileBytes,
+                              int maxFiles,
+                              int queueCapacity,
+                              Set<String> redactedQueries) {
+
+    public static final String KEY_ENABLED = "db.slowQuery.enabled";
+    public static final String KEY_THRESHOLD = "db.slowQuery.thresholdMs";
+    public static final String KEY_SAMPLE_RATE = "db.slowQuery.sampleRate";
+    public static final String KEY_FILE = "db.slowQuery.file";
+    public static final String KEY_MAX_FILE_BYTES = "db.slowQuery.maxFileBytes";
+    public static final String KEY_MAX_FILES = "db.slowQuery.maxFiles";
+    public static final String KEY_QUEUE_CAPACITY = "db.slowQuery.queueCapacity";
+    public static final String KEY_REDACT = "db.slowQuery.redact";
+
+    private static final long DEFAULT_THRESHOLD = 200;
+    private static final double DEFAULT_SAMPLE_RATE = 1.0;
+    private static final String DEFAULT_FILE = "logs/slow-queries.%g.log";
+    private static final int DEFAULT_MAX_FILE_BYTES = 10 * 1024 * 1024;
+    private static final int DEFAULT_MAX_FILES = 5;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final String DEFAULT_REDACT = "PassengerQueries";
+
+    public SlowQueryConfig {
+        requireThat(thresholdMillis >= 0, KEY_THRESHOLD);
+        requireThat(sampleRate >= 0.0 && sampleRate <= 1.0, KEY_SAMPLE_RATE);
+        requireThat(filePattern != null && !filePattern.isBlank(), KEY_FILE);
+        requireThat(maxFileBytes > 0, KEY_MAX_FILE_BYTES);
+        requireThat(maxFiles > 0, KEY_MAX_FILES);
+        requireThat(queueCapacity > 0, KEY_QUEUE_CAPACITY);
+        redactedQueries = redactedQueries == null ? Set.of() : Set.copyOf(redactedQueries);
+    }
+
+    public static SlowQueryConfig disabled() {
+        return new SlowQueryConfig(false, DEFAULT_THRESHOLD, DEFAULT_SAMPLE_RATE, DEFAULT_FILE,
+                DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILES, DEFAULT_QUEUE_CAPACITY, Set.of(DEFAULT_REDACT));
+    }
+
+    public static SlowQueryConfig load() {
+        return fromProperties(PoolConfig.loadProperties());
+    }
+
+    public static SlowQueryConfig fromProperties(Properties properties) {
+        String sampleRate = properties.getProperty(KEY_SAMPLE_RATE, String.valueOf(DEFAULT_SAMPLE_RATE));
+        try {
+            return new SlowQueryConfig(
+                    Boolean.parseBoolean(properties.getProperty(KEY_ENABLED, "false").trim()),
+                    longProperty(properties, KEY_THRESHOLD, DEFAULT_THRESHOLD),
+                    Double.parseDouble(sampleRate.trim()),
+                    properties.getProperty(KEY_FILE, DEFAULT_FILE).trim(),
+                    intProperty(properties, KEY_MAX_FILE_BYTES, DEFAULT_MAX_FILE_BYTES),
+                    intProperty(properties, KEY_MAX_FILES, DEFAULT_MAX_FILES),
+                    intProperty(properties, KEY_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY),
+                    Arrays.stream(properties.getProperty(KEY_REDACT, DEFAULT_REDACT).split(","))
+                            .map(String::trim)
+                            .filter(prefix -> !prefix.isEmpty())
+                            .collect(Collectors.toSet()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(ERROR_POOL_CONFIG, KEY_SAMPLE_RATE), e);
+        }
+    }
+
+    boolean isRedacted(String queryName) {
+        if (queryName == null) {
+            return !redactedQueries.isEmpty();
+        }
+        for (String prefix : redactedQueries) {
+            if (queryName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,136 @@
+package config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static utils.Constants.*;
+
+/**
+ * Writes statements that ran longer than the configured threshold to a rolling
+ * file. Request threads only hand over an entry to a bounded queue; formatting and
+ * file I/O happen on a background thread, and entries are dropped (and counted)
+ * when the queue is full rather than making the caller wait.
+ */
+public final class SlowQueryLog implements AutoCloseable {
+
+    private final SlowQueryConfig config;
+    private final long thresholdNanos;
+    private final BlockingQueue<Entry> queue;
+    private final FileHandler file;
+    private final Thread writer;
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean closed;
+
+    /** One slow execution; {@code parameters} is already rendered and redacted. */
+    record Entry(Instant at, long elapsedNanos, int connectionId, String queryName,
+                 String sql, String parameters, long rows) {
+    }
+
+    public SlowQueryLog(SlowQueryConfig config) {
+        this.config = config;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.thresholdMillis());
+        this.queue = new ArrayBlockingQueue<>(config.queueCapacity());
+        try {
+            Path parent = Path.of(config.filePattern()).getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.file = new FileHandler(config.filePattern(), config.maxFileBytes(), config.maxFiles(), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(ERROR_SLOW_QUERY_FILE, config.filePattern()), e);
+        }
+        file.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage() + System.lineSeparator();
+            }
+        });
+        this.writer = new Thread(this::drain, SLOW_QUERY_WRITER_THREAD);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public long getLoggedEntries() {
+        return logged.sum();
+    }
+
+    public long getDroppedEntries() {
+        return dropped.sum();
+    }
+
+    /**
+     * True when an execution that took {@code elapsedNanos} passes the threshold and the sampling draw.
+     */
+    boolean shouldLog(long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos || closed) {
+            return false;
+        }
+        double rate = config.sampleRate();
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    boolean isRedacted(String queryName) {
+        return config.isRedacted(queryName);
+    }
+
+    void submit(Entry entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Flushes the pending entries and closes the file.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        file.close();
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                write(queue.take());
+            }
+        } catch (InterruptedException e) {
+            // Closing: fall through and write what is left.
+        }
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            write(entry);
+        }
+        file.flush();
+    }
+
+    private void write(Entry entry) {
+        file.publish(new LogRecord(Level.INFO, format(entry)));
+        logged.increment();
+    }
+
+    private static String format(Entry entry) {
+        return String.format("%s %.1f ms conn=%d query=%s rows=%d params=[%s]",
+                entry.at(), entry.elapsedNanos() / 1_000_000.0, entry.connectionId(),
+                entry.queryName() != null ? entry.queryName() : entry.sql(),
+                entry.rows(), entry.parameters());
+    }
+}
@@ -0,0 +1,250 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static utils.Constants.*;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text
+ * and generated-keys mode. Closing a cached statement resets it and keeps it for
+ * the next caller. Like the connection it belongs to, it is only used by the
+ * thread that currently borrows that connection.
+ */
+final class StatementCache {
+
+    /** Calls that change statement state we cannot reliably reset; such statements are not reused. */
+    private static final Set<String> STATE_CHANGING_METHODS =
+            Set.of("setFetchSize", "setMaxRows", "setQueryTimeout", "setFetchDirection",
+                    "setMaxFieldSize", "setEscapeProcessing", "setPoolable", "setCursorName");
+
+    private final Connection physical;
+    private final int maxSize;
+    private final Counters counters;
+    private final Map<Key, CachedStatement> statements;
+
+    record Key(String sql, int autoGeneratedKeys) {
+    }
+
+    /** Counters shared by every cache of a pool. */
+    static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        StatementCacheStats snapshot() {
+            return new StatementCacheStats(hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    StatementCache(Connection physical, int maxSize, Counters counters) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.counters = counters;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                counters.evictions.increment();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Prepares every complete query in {@link SQLQueries} so the first real call is a cache hit.
+     * INSERT statements are prepared in both plain and generated-keys mode.
+     */
+    void prewarm() {
+        for (String sql : SQLQueries.catalog().values()) {
+            if (!SQLQueries.isStatic(sql)) {
+                continue;
+            }
+            warm(new Key(sql, Statement.NO_GENERATED_KEYS));
+            if (sql.startsWith("INSERT")) {
+                warm(new Key(sql, Statement.RETURN_GENERATED_KEYS));
+            }
+        }
+    }
+
+    PreparedStatement prepare(Connection handle, String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            counters.hits.increment();
+            return cached.checkOut(handle);
+        }
+
+        counters.misses.increment();
+        PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // The cached copy is already open further up this thread's stack; hand out a private one.
+            return statement;
+        }
+        CachedStatement created = new CachedStatement(key, statement);
+        statements.put(key, created);
+        return created.checkOut(handle);
+    }
+
+    void closeAll() {
+        for (Iterator<CachedStatement> it = statements.values().iterator(); it.hasNext(); ) {
+            it.next().evict();
+            it.remove();
+        }
+    }
+
+    private void warm(Key key) {
+        if (statements.size() >= maxSize) {
+            return;
+        }
+        try {
+            statements.put(key, new CachedStatement(key, physical.prepareStatement(key.sql(), key.autoGeneratedKeys())));
+        } catch (SQLException e) {
+            // Schema not there yet (e.g. before bootstrap); the statement is prepared on first use instead.
+        }
+    }
+
+    private static boolean isClosedQuietly(ResultSet resultSet) {
+        try {
+            return resultSet.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private final class CachedStatement implements InvocationHandler {
+        private final Key key;
+        private final PreparedStatement statement;
+        private final List<ResultSet> openResults = new ArrayList<>();
+        private Connection handle;
+        private PreparedStatement proxy;
+        private boolean inUse;
+        private boolean reusable;
+        private boolean evicted;
+
+        private CachedStatement(Key key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkOut(Connection handle) {
+            this.handle = handle;
+            this.inUse = true;
+            this.reusable = true;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+            return proxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (proxy != this.proxy) {
+                return invokeStale(proxy, name, args);
+            }
+            switch (name) {
+                case "close" -> {
+                    checkIn();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return false;
+                }
+                case "getConnection" -> {
+                    return handle;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached" + statement;
+                }
+                default -> {
+                    if (STATE_CHANGING_METHODS.contains(name)) {
+                        reusable = false;
+                    }
+                    Object result = invokeTarget(method, args);
+                    if (result instanceof ResultSet resultSet) {
+                        openResults.removeIf(StatementCache::isClosedQuietly);
+                        openResults.add(resultSet);
+                    }
+                    return result;
+                }
+            }
+        }
+
+        /** A handle from an earlier checkout only answers lifecycle questions. */
+        private Object invokeStale(Object proxy, String name, Object[] args) throws SQLException {
+            return switch (name) {
+                case "close" -> null;
+                case "isClosed" -> true;
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "Closed" + statement;
+                default -> throw new SQLException(ERROR_STATEMENT_CLOSED);
+            };
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void checkIn() throws SQLException {
+            proxy = null;
+            handle = null;
+            inUse = false;
+            try {
+                for (ResultSet resultSet : openResults) {
+                    resultSet.close();
+                }
+                openResults.clear();
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+            } catch (SQLException e) {
+                reusable = false;
+            }
+            if (evicted || !reusable) {
+                statements.remove(key, this);
+                statement.close();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    System.err.println(String.format(WARN_STATEMENT_CLOSE, e.getMessage()));
+                }
+            }
+        }
+    }
+}
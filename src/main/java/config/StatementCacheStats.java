@@ -0,0 +1,18 @@
+package config;
+
+/**
+ * Point-in-time counters of the prepared-statement cache of a {@link ConnectionPool}.
+ */
+public record StatementCacheStats(long hits, long misses, long evictions) {
+
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StatementCache{aciertos=%d, fallos=%d, expulsiones=%d, ratio=%.2f}",
+                hits, misses, evictions, hitRatio());
+    }
+}
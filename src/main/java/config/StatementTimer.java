@@ -0,0 +1,217 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Times the executions of one prepared statement for the {@link SlowQueryLog}.
+ * Bind values are remembered as they are set. For queries the time spent in
+ * {@code ResultSet.next()} is added to the execution time, so cursor fetches
+ * count, but time the caller spends handling each row does not.
+ */
+final class StatementTimer implements InvocationHandler {
+
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+                    "executeBatch", "executeLargeBatch");
+    private static final String REDACTED = "***";
+
+    private final PreparedStatement statement;
+    private final String sql;
+    private final String queryName;
+    private final int connectionId;
+    private final SlowQueryLog log;
+    private Object[] parameters = new Object[8];
+    private int batchedRows;
+
+    private Execution open;
+
+    private StatementTimer(PreparedStatement statement, String sql, int connectionId, SlowQueryLog log) {
+        this.statement = statement;
+        this.sql = sql;
+        this.queryName = SQLQueries.nameOf(sql);
+        this.connectionId = connectionId;
+        this.log = log;
+    }
+
+    static PreparedStatement wrap(PreparedStatement statement, String sql, int connectionId, SlowQueryLog log) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new StatementTimer(statement, sql, connectionId, log));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+            remember(index, name.equals("setNull") ? null : args[1]);
+        } else if (name.equals("clearParameters")) {
+            Arrays.fill(parameters, null);
+        } else if (name.equals("addBatch")) {
+            batchedRows++;
+        } else if (name.equals("clearBatch")) {
+            batchedRows = 0;
+        } else if (name.equals("close")) {
+            finish();
+        } else if (name.equals("equals")) {
+            return proxy == args[0];
+        } else if (name.equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        }
+
+        if (!EXECUTE_METHODS.contains(name)) {
+            return invokeTarget(statement, method, args);
+        }
+
+        finish();
+        long start = System.nanoTime();
+        Object result = invokeTarget(statement, method, args);
+        long elapsed = System.nanoTime() - start;
+        if (result instanceof ResultSet resultSet) {
+            open = new Execution(elapsed);
+            return open.wrap(resultSet);
+        }
+        report(elapsed, rowsAffected(result));
+        batchedRows = 0;
+        return result;
+    }
+
+    private void remember(int index, Object value) {
+        if (index >= parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(index + 1, parameters.length * 2));
+        }
+        parameters[index] = value == null ? NullValue.INSTANCE : value;
+    }
+
+    private void finish() {
+        if (open != null) {
+            Execution execution = open;
+            open = null;
+            report(execution.elapsedNanos, execution.rows);
+        }
+    }
+
+    private void report(long elapsedNanos, long rows) {
+        if (!log.shouldLog(elapsedNanos)) {
+            return;
+        }
+        log.submit(new SlowQueryLog.Entry(Instant.now(), elapsedNanos, connectionId, queryName, sql,
+                renderParameters(), rows));
+    }
+
+    private String renderParameters() {
+        boolean redact = log.isRedacted(queryName);
+        StringBuilder rendered = new StringBuilder();
+        for (int i = 1; i < parameters.length; i++) {
+            Object value = parameters[i];
+            if (value == null) {
+                continue;
+            }
+            if (!rendered.isEmpty()) {
+                rendered.append(", ");
+            }
+            rendered.append(i).append('=');
+            if (value instanceof CharSequence) {
+                rendered.append(redact ? REDACTED : "'" + value + "'");
+            } else {
+                rendered.append(value);
+            }
+        }
+        if (batchedRows > 0) {
+            rendered.append(rendered.isEmpty() ? "" : ", ").append("lote=").append(batchedRows);
+        }
+        return rendered.toString();
+    }
+
+    private static long rowsAffected(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(0, count);
+        }
+        if (result instanceof Long count) {
+            return Math.max(0, count);
+        }
+        if (result instanceof int[] counts) {
+            return Arrays.stream(counts).filter(count -> count > 0).asLongStream().sum();
+        }
+        if (result instanceof long[] counts) {
+            return Arrays.stream(counts).filter(count -> count > 0).sum();
+        }
+        return 0;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Bound SQL NULL, told apart from a parameter that was never set. */
+    private enum NullValue {
+        INSTANCE;
+
+        @Override
+        public String toString() {
+            return "NULL";
+        }
+    }
+
+    /** A query whose result set is still being read. */
+    private final class Execution implements InvocationHandler {
+        private long elapsedNanos;
+        private long rows;
+        private ResultSet resultSet;
+
+        private Execution(long elapsedNanos) {
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        private ResultSet wrap(ResultSet resultSet) {
+            this.resultSet = resultSet;
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    long start = System.nanoTime();
+                    boolean hasRow = (boolean) invokeTarget(resultSet, method, args);
+                    elapsedNanos += System.nanoTime() - start;
+                    if (hasRow) {
+                        rows++;
+                    }
+                    return hasRow;
+                }
+                case "close" -> {
+                    invokeTarget(resultSet, method, args);
+                    if (open == this) {
+                        finish();
+                    }
+                    return null;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    return invokeTarget(resultSet, method, args);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package config;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+import static utils.Constants.*;
+
+/**
+ * Hands every borrower on a thread the same connection while that thread has a
+ * transaction open with {@link #begin(int)}, so DAO calls made in between commit
+ * together; without one it simply borrows from the target.
+ * <p>
+ * Borrowers keep their usual code: closing the shared connection leaves it open, and
+ * their own {@code setAutoCommit(false)} / {@code commit()} / {@code rollback()} work
+ * on a savepoint, so a DAO that undoes its part does not undo the rest of the
+ * transaction. Isolation changes are ignored once the transaction has started.
+ * <p>
+ * State kept outside the database (caches, indexes) is changed through
+ * {@link #afterCommit(Runnable)}, so other threads never see uncommitted writes.
+ */
+public final class TransactionAwareDataSource implements DataSource, AutoCloseable {
+
+    private final DataSource target;
+    private final ThreadLocal<Transaction> bound = new ThreadLocal<>();
+
+    public TransactionAwareDataSource(DataSource target) {
+        this.target = Objects.requireNonNull(target, ERROR_NULL_DATA_SOURCE);
+    }
+
+    public DataSource getTarget() {
+        return target;
+    }
+
+    /**
+     * Borrows a connection, starts a transaction on it and binds it to this thread.
+     *
+     * @param isolation a {@code Connection.TRANSACTION_*} level, or
+     *                  {@link Connection#TRANSACTION_NONE} to keep the connection's default
+     */
+    public void begin(int isolation) throws SQLException {
+        if (bound.get() != null) {
+            throw new IllegalStateException(ERROR_TRANSACTION_ACTIVE);
+        }
+        Connection connection = target.getConnection();
+        try {
+            if (isolation != Connection.TRANSACTION_NONE) {
+                connection.setTransactionIsolation(isolation);
+            }
+            connection.setAutoCommit(false);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        bound.set(new Transaction(connection));
+    }
+
+    public boolean isActive() {
+        return bound.get() != null;
+    }
+
+    /**
+     * Runs {@code action} once the thread's transaction has committed, or right away
+     * when the thread has none.
+     */
+    public void afterCommit(Runnable action) {
+        Objects.requireNonNull(action);
+        Transaction transaction = bound.get();
+        if (transaction == null) {
+            action.run();
+        } else {
+            transaction.afterCommit.add(action);
+        }
+    }
+
+    /**
+     * Runs {@code action} if the thread's transaction rolls back; does nothing when
+     * the thread has none.
+     */
+    public void afterRollback(Runnable action) {
+        Objects.requireNonNull(action);
+        Transaction transaction = bound.get();
+        if (transaction != null) {
+            transaction.afterRollback.add(action);
+        }
+    }
+
+    /**
+     * Commits the thread's transaction, returns its connection to the target and
+     * runs the {@link #afterCommit(Runnable)} actions, or the
+     * {@link #afterRollback(Runnable)} ones if the commit fails.
+     */
+    public void commit() throws SQLException {
+        Transaction transaction = unbind();
+        try (Connection connection = transaction.connection) {
+            connection.commit();
+        } catch (SQLException e) {
+            runAll(transaction.afterRollback);
+            throw e;
+        }
+        runAll(transaction.afterCommit);
+    }
+
+    /**
+     * Rolls back the thread's transaction, returns its connection to the target and
+     * runs the {@link #afterRollback(Runnable)} actions.
+     */
+    public void rollback() throws SQLException {
+        Transaction transaction = unbind();
+        try (Connection connection = transaction.connection) {
+            connection.rollback();
+        } finally {
+            runAll(transaction.afterRollback);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Transaction transaction = bound.get();
+        if (transaction == null) {
+            return target.getConnection();
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new SharedConnection(transaction.connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /**
+     * Closes the target when it is a {@link ConnectionPool} or a {@link RoutingDataSource}.
+     */
+    @Override
+    public void close() {
+        if (target instanceof ConnectionPool pool) {
+            pool.close();
+        } else if (target instanceof RoutingDataSource router) {
+            router.close();
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return target.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target.isWrapperFor(iface);
+    }
+
+    private static void runAll(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    private Transaction unbind() {
+        Transaction transaction = bound.get();
+        if (transaction == null) {
+            throw new IllegalStateException(ERROR_NO_TRANSACTION);
+        }
+        bound.remove();
+        return transaction;
+    }
+
+    /** The thread's transaction connection and the actions waiting for its outcome. */
+    private static final class Transaction {
+        private final Connection connection;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private final List<Runnable> afterRollback = new ArrayList<>();
+
+        private Transaction(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /** One borrower's view of the thread's transaction connection. */
+    private static final class SharedConnection implements InvocationHandler {
+        private final Connection connection;
+        /** Start of the borrower's own transaction, set by {@code setAutoCommit(false)}. */
+        private Savepoint savepoint;
+        private boolean closed;
+
+        private SharedConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        release();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || connection.isClosed();
+                }
+                case "getAutoCommit" -> {
+                    return false;
+                }
+                case "setAutoCommit" -> {
+                    if ((Boolean) args[0]) {
+                        release();
+                    } else if (savepoint == null) {
+                        savepoint = connection.setSavepoint();
+                    }
+                    return null;
+                }
+                case "commit" -> {
+                    if (savepoint != null) {
+                        release();
+                        savepoint = connection.setSavepoint();
+                    }
+                    return null;
+                }
+                case "rollback" -> {
+                    // rollback(Savepoint) targets the borrower's own savepoint and goes through.
+                    if (args == null) {
+                        if (savepoint != null) {
+                            connection.rollback(savepoint);
+                        }
+                        return null;
+                    }
+                }
+                case "setTransactionIsolation" -> {
+                    return null;
+                }
+                default -> {
+                }
+            }
+            if (closed && method.getDeclaringClass() == Connection.class) {
+                throw new SQLException(ERROR_CONNECTION_CLOSED);
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void release() throws SQLException {
+            if (savepoint != null) {
+                Savepoint released = savepoint;
+                savepoint = null;
+                connection.releaseSavepoint(released);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk operation: the rows that were stored and the rows that
+ * were rejected, each with the reason it failed.
+ */
+public final class BatchResult<T> {
+
+    private final List<T> inserted = new ArrayList<>();
+    private final List<Failure<T>> failures = new ArrayList<>();
+
+    public record Failure<T>(T item, String reason) {
+    }
+
+    public void addInserted(T item) {
+        inserted.add(item);
+    }
+
+    public void addFailure(T item, String reason) {
+        failures.add(new Failure<>(item, reason));
+    }
+
+    public BatchResult<T> merge(BatchResult<T> other) {
+        inserted.addAll(other.inserted);
+        failures.addAll(other.failures);
+        return this;
+    }
+
+    public List<T> getInserted() {
+        return Collections.unmodifiableList(inserted);
+    }
+
+    public List<Failure<T>> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Lote{insertados=%d, fallidos=%d}", inserted.size(), failures.size());
+    }
+}
@@ -1,22 +1,93 @@
 package dao;
 
 import model.Car;
+import model.Passenger;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface CarDAO {
 
     Car insert(Car car) throws SQLException;
 
+    BatchResult<Car> insertAll(Collection<Car> cars) throws SQLException;
+
     boolean update(Car car) throws SQLException;
 
+    /**
+     * Same as {@link #update(Car)}, also returning the car as it was before, read under
+     * its row lock in the same transaction; empty when nothing was updated.
+     */
+    Optional<Car> updateReturningPrevious(Car car) throws SQLException;
+
+    /**
+     * Makes the cars table match {@code cars}, keyed by license plate: new plates are
+     * inserted, cars whose brand, model or color differ are updated and identical ones
+     * are left alone. With {@code deleteMissing}, cars whose plate is not in {@code cars}
+     * are deleted along with their passenger assignments. Runs as one transaction and
+     * reads the whole table once, so it is meant for full feeds.
+     */
+    SyncResult upsertAll(Collection<Car> cars, boolean deleteMissing) throws SQLException;
+
     boolean delete(int id) throws SQLException;
 
+    /**
+     * Same as {@link #delete(int)}, returning the deleted car as read under its row
+     * lock in the same transaction; empty when no car was deleted.
+     */
+    Optional<Car> deleteReturningPrevious(int id) throws SQLException;
+
     Optional<Car> findById(int id) throws SQLException;
 
+    /**
+     * Cars with the given ids, keyed by id, loaded with chunked {@code IN (...)}
+     * queries. Ids with no car are absent from the map.
+     */
+    Map<Integer, Car> findByIds(Collection<Integer> ids) throws SQLException;
+
     List<Car> findAll() throws SQLException;
 
+    /**
+     * Lazily streams every car through a database cursor. The stream holds a
+     * connection until it is closed, so use it in try-with-resources.
+     */
+    Stream<Car> stream() throws SQLException;
+
+    /**
+     * Keyset pagination: up to {@code limit} cars with an id greater than
+     * {@code afterId}, in id order. Pass 0 for the first page.
+     */
+    Page<Car> findPage(int afterId, int limit) throws SQLException;
+
+    /**
+     * Visits every car through a database cursor without materializing the table.
+     */
+    void forEach(Consumer<? super Car> action) throws SQLException;
+
+    /**
+     * Every car with its passengers, loaded with a single join. Cars without
+     * passengers map to an empty list; iteration follows car id order.
+     */
+    Map<Car, List<Passenger>> findAllWithPassengers() throws SQLException;
+
+    /**
+     * Cars the passenger is assigned to, found through the passenger_id index.
+     */
+    List<Car> findByPassengerId(int passengerId) throws SQLException;
+
+    /**
+     * Cars of each passenger, keyed by passenger id, loaded with chunked {@code IN (...)}
+     * joins. Passengers without a car are absent from the map.
+     */
+    Map<Integer, List<Car>> findByPassengerIds(Collection<Integer> passengerIds) throws SQLException;
+
     boolean existsByLicensePlate(String licensePlate) throws SQLException;
+
+    Set<String> findExistingLicensePlates(Collection<String> licensePlates) throws SQLException;
 }
\ No newline at end of file
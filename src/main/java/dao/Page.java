@@ -0,0 +1,22 @@
+package dao;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextPageToken} is the id to pass
+ * as {@code afterId} for the following page, or {@code null} on the last page.
+ */
+public record Page<T>(List<T> items, Integer nextPageToken) {
+
+    public Page {
+        items = List.copyOf(items);
+    }
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -3,25 +3,82 @@ package dao;
 import model.Passenger;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface PassengerDAO {
 
     Passenger insert(Passenger passenger) throws SQLException;
 
+    BatchResult<Passenger> insertAll(Collection<Passenger> passengers) throws SQLException;
+
     boolean update(Passenger passenger) throws SQLException;
 
     boolean delete(int id) throws SQLException;
 
     Optional<Passenger> findById(int id) throws SQLException;
 
+    /**
+     * Passengers with the given ids, keyed by id, loaded with chunked {@code IN (...)}
+     * queries. Ids with no passenger are absent from the map.
+     */
+    Map<Integer, Passenger> findByIds(Collection<Integer> ids) throws SQLException;
+
     List<Passenger> findAll() throws SQLException;
 
+    /**
+     * Lazily streams every passenger through a database cursor. The stream holds a
+     * connection until it is closed, so use it in try-with-resources.
+     */
+    Stream<Passenger> stream() throws SQLException;
+
+    /**
+     * Keyset pagination: up to {@code limit} passengers with an id greater than
+     * {@code afterId}, in id order. Pass 0 for the first page.
+     */
+    Page<Passenger> findPage(int afterId, int limit) throws SQLException;
+
+    /**
+     * Visits every passenger through a database cursor without materializing the table.
+     */
+    void forEach(Consumer<? super Passenger> action) throws SQLException;
+
     boolean addToCar(int passengerId, int carId) throws SQLException;
 
+    /**
+     * Seats a passenger in a car in one transaction. The car row is locked, so
+     * the existence checks, the capacity check and the insert cannot interleave
+     * with a concurrent assignment to the same car.
+     */
+    SeatAssignment assignToCar(int passengerId, int carId, int capacity) throws SQLException;
+
     boolean removeFromCar(int passengerId, int carId) throws SQLException;
 
+    /**
+     * Seats every passenger in a car in one transaction: the car row is locked, its
+     * capacity is checked once for the whole group and the assignments are inserted
+     * with one statement. Anything but {@code ASSIGNED} leaves the data unchanged.
+     */
+    SeatAssignment assignAll(int carId, Collection<Integer> passengerIds, int capacity) throws SQLException;
+
+    /**
+     * Moves every passenger of {@code fromCarId} to {@code toCarId} in one transaction,
+     * with both car rows locked and a single capacity check on the target. Fails with
+     * {@code ALREADY_ASSIGNED} when a passenger already rides in both cars.
+     */
+    SeatAssignment moveAll(int fromCarId, int toCarId, int capacity) throws SQLException;
+
+    /**
+     * Removes every passenger from a car and resets its counter in one transaction.
+     *
+     * @return the number of passengers removed
+     */
+    int clearCar(int carId) throws SQLException;
+
     List<Passenger> findByCarId(int carId) throws SQLException;
 
     boolean isInAnyCar(int passengerId) throws SQLException;
@@ -0,0 +1,12 @@
+package dao;
+
+/**
+ * Outcome of an atomic seat assignment, see {@link PassengerDAO#assignToCar(int, int, int)}.
+ */
+public enum SeatAssignment {
+    ASSIGNED,
+    PASSENGER_NOT_FOUND,
+    CAR_NOT_FOUND,
+    CAR_FULL,
+    ALREADY_ASSIGNED
+}
@@ -0,0 +1,25 @@
+package dao;
+
+import java.util.Set;
+
+/**
+ * Outcome of synchronizing the cars table with a feed: how many feed rows were
+ * inserted, changed or already up to date, and the license plates of the cars
+ * deleted because the feed no longer contains them.
+ */
+public record SyncResult(int inserted, int updated, int unchanged, Set<String> deletedLicensePlates) {
+
+    public SyncResult {
+        deletedLicensePlates = Set.copyOf(deletedLicensePlates);
+    }
+
+    public int deleted() {
+        return deletedLicensePlates.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Sincronización{insertados=%d, actualizados=%d, sin cambios=%d, eliminados=%d}",
+                inserted, updated, unchanged, deleted());
+    }
+}
@@ -0,0 +1,18 @@
+package dao.cache;
+
+/**
+ * Point-in-time counters of an {@link EntityCache}.
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cache{aciertos=%d, fallos=%d, expulsiones=%d, entradas=%d, ratio=%.2f}",
+                hits, misses, evictions, size, hitRatio());
+    }
+}
@@ -0,0 +1,263 @@
+package dao.cache;
+
+import config.DatabaseConnection;
+import config.TransactionAwareDataSource;
+import dao.BatchResult;
+import dao.CarDAO;
+import dao.Page;
+import dao.SyncResult;
+import model.Car;
+import model.Passenger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static utils.Constants.*;
+
+/**
+ * Read-through cache in front of a {@link CarDAO}. Cars are cached by id with a
+ * secondary license plate index, so lookups by id and positive plate checks are
+ * served from memory. Writes go to the delegate first and then refresh or drop
+ * the cached entry. Cached cars are copied on the way in and out, so callers
+ * cannot change them behind the cache's back.
+ * <p>
+ * Inside a transaction of the {@link TransactionAwareDataSource}, reads skip the
+ * cache and the cache changes of writes wait until the transaction commits, so
+ * other threads never see uncommitted or rolled-back cars.
+ */
+public final class CachingCarDAO implements CarDAO {
+
+    private final CarDAO delegate;
+    private final TransactionAwareDataSource transactions;
+    private final EntityCache<Integer, Car> cache;
+
+    public CachingCarDAO(CarDAO delegate) {
+        this(delegate, DatabaseConnection.getDataSource());
+    }
+
+    public CachingCarDAO(CarDAO delegate, TransactionAwareDataSource transactions) {
+        this(delegate, transactions, CACHE_MAX_ENTRIES, Duration.ofSeconds(CACHE_TTL_SECONDS));
+    }
+
+    public CachingCarDAO(CarDAO delegate, TransactionAwareDataSource transactions, int maxEntries, Duration ttl) {
+        this.delegate = Objects.requireNonNull(delegate, ERROR_NULL_CAR_DAO);
+        this.transactions = Objects.requireNonNull(transactions, ERROR_NULL_DATA_SOURCE);
+        this.cache = new EntityCache<>(maxEntries, ttl, Car::getLicensePlate);
+    }
+
+    @Override
+    public Car insert(Car car) throws SQLException {
+        Car inserted = delegate.insert(car);
+        cacheWritten(inserted);
+        return inserted;
+    }
+
+    @Override
+    public BatchResult<Car> insertAll(Collection<Car> cars) throws SQLException {
+        BatchResult<Car> result = delegate.insertAll(cars);
+        result.getInserted().forEach(this::cacheWritten);
+        return result;
+    }
+
+    @Override
+    public boolean update(Car car) throws SQLException {
+        boolean updated;
+        try {
+            updated = delegate.update(car);
+        } catch (SQLException | RuntimeException e) {
+            cache.invalidate(car.getId());
+            throw e;
+        }
+        updated(car, updated);
+        return updated;
+    }
+
+    @Override
+    public Optional<Car> updateReturningPrevious(Car car) throws SQLException {
+        Optional<Car> previous;
+        try {
+            previous = delegate.updateReturningPrevious(car);
+        } catch (SQLException | RuntimeException e) {
+            cache.invalidate(car.getId());
+            throw e;
+        }
+        updated(car, previous.isPresent());
+        return previous;
+    }
+
+    /**
+     * A sync may touch any row, so the whole cache is dropped afterwards.
+     */
+    @Override
+    public SyncResult upsertAll(Collection<Car> cars, boolean deleteMissing) throws SQLException {
+        try {
+            return delegate.upsertAll(cars, deleteMissing);
+        } finally {
+            transactions.afterCommit(cache::clear);
+        }
+    }
+
+    @Override
+    public boolean delete(int id) throws SQLException {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidateWritten(id);
+        }
+    }
+
+    @Override
+    public Optional<Car> deleteReturningPrevious(int id) throws SQLException {
+        try {
+            return delegate.deleteReturningPrevious(id);
+        } finally {
+            invalidateWritten(id);
+        }
+    }
+
+    @Override
+    public Optional<Car> findById(int id) throws SQLException {
+        if (transactions.isActive()) {
+            return delegate.findById(id);
+        }
+        Optional<Car> cached = cache.get(id);
+        if (cached.isPresent()) {
+            return cached.map(Car::new);
+        }
+
+        long stamp = cache.writeStamp();
+        Optional<Car> loaded = delegate.findById(id);
+        loaded.ifPresent(car -> cache.putLoaded(id, new Car(car), stamp));
+        return loaded;
+    }
+
+    /**
+     * Serves the cached ids and loads only the rest from the delegate, in one call.
+     */
+    @Override
+    public Map<Integer, Car> findByIds(Collection<Integer> ids) throws SQLException {
+        if (transactions.isActive()) {
+            return delegate.findByIds(ids);
+        }
+        Map<Integer, Car> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Optional<Car> cached = cache.get(id);
+            if (cached.isPresent()) {
+                found.put(id, new Car(cached.get()));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = cache.writeStamp();
+            delegate.findByIds(missing).forEach((id, car) -> {
+                cache.putLoaded(id, new Car(car), stamp);
+                found.put(id, car);
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public List<Car> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Car> stream() throws SQLException {
+        return delegate.stream();
+    }
+
+    @Override
+    public Page<Car> findPage(int afterId, int limit) throws SQLException {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Car> action) throws SQLException {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Map<Car, List<Passenger>> findAllWithPassengers() throws SQLException {
+        return delegate.findAllWithPassengers();
+    }
+
+    @Override
+    public List<Car> findByPassengerId(int passengerId) throws SQLException {
+        return delegate.findByPassengerId(passengerId);
+    }
+
+    @Override
+    public Map<Integer, List<Car>> findByPassengerIds(Collection<Integer> passengerIds) throws SQLException {
+        return delegate.findByPassengerIds(passengerIds);
+    }
+
+    @Override
+    public boolean existsByLicensePlate(String licensePlate) throws SQLException {
+        return isCachedLicensePlate(licensePlate) || delegate.existsByLicensePlate(licensePlate);
+    }
+
+    @Override
+    public Set<String> findExistingLicensePlates(Collection<String> licensePlates) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (String licensePlate : licensePlates) {
+            if (isCachedLicensePlate(licensePlate)) {
+                existing.add(licensePlate);
+            } else {
+                unknown.add(licensePlate);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            existing.addAll(delegate.findExistingLicensePlates(unknown));
+        }
+        return existing;
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public boolean isEnabled() {
+        return cache.isEnabled();
+    }
+
+    public void setEnabled(boolean enabled) {
+        cache.setEnabled(enabled);
+    }
+
+    private void cacheWritten(Car car) {
+        Car written = new Car(car);
+        transactions.afterCommit(() -> cache.put(written.getId(), written));
+    }
+
+    private void updated(Car car, boolean updated) {
+        if (updated) {
+            cacheWritten(car);
+        } else {
+            invalidateWritten(car.getId());
+        }
+    }
+
+    private void invalidateWritten(int id) {
+        transactions.afterCommit(() -> cache.invalidate(id));
+    }
+
+    private boolean isCachedLicensePlate(String licensePlate) {
+        return licensePlate != null && !transactions.isActive()
+                && cache.getBySecondaryKey(licensePlate).isPresent();
+    }
+}
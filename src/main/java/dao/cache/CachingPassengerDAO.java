@@ -0,0 +1,223 @@
+package dao.cache;
+
+import config.DatabaseConnection;
+import config.TransactionAwareDataSource;
+import dao.BatchResult;
+import dao.PassengerDAO;
+import dao.SeatAssignment;
+import dao.Page;
+import model.Passenger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static utils.Constants.*;
+
+/**
+ * Read-through cache in front of a {@link PassengerDAO}. Passengers are cached by
+ * id; seat assignments are always read from the delegate. Writes go to the
+ * delegate first and then refresh or drop the cached entry.
+ * <p>
+ * Inside a transaction of the {@link TransactionAwareDataSource}, reads skip the
+ * cache and the cache changes of writes wait until the transaction commits.
+ */
+public final class CachingPassengerDAO implements PassengerDAO {
+
+    private final PassengerDAO delegate;
+    private final TransactionAwareDataSource transactions;
+    private final EntityCache<Integer, Passenger> cache;
+
+    public CachingPassengerDAO(PassengerDAO delegate) {
+        this(delegate, DatabaseConnection.getDataSource());
+    }
+
+    public CachingPassengerDAO(PassengerDAO delegate, TransactionAwareDataSource transactions) {
+        this(delegate, transactions, CACHE_MAX_ENTRIES, Duration.ofSeconds(CACHE_TTL_SECONDS));
+    }
+
+    public CachingPassengerDAO(PassengerDAO delegate, TransactionAwareDataSource transactions,
+                               int maxEntries, Duration ttl) {
+        this.delegate = Objects.requireNonNull(delegate, ERROR_NULL_PASSENGER_DAO);
+        this.transactions = Objects.requireNonNull(transactions, ERROR_NULL_DATA_SOURCE);
+        this.cache = new EntityCache<>(maxEntries, ttl);
+    }
+
+    @Override
+    public Passenger insert(Passenger passenger) throws SQLException {
+        Passenger inserted = delegate.insert(passenger);
+        cacheWritten(inserted);
+        return inserted;
+    }
+
+    @Override
+    public BatchResult<Passenger> insertAll(Collection<Passenger> passengers) throws SQLException {
+        BatchResult<Passenger> result = delegate.insertAll(passengers);
+        result.getInserted().forEach(this::cacheWritten);
+        return result;
+    }
+
+    @Override
+    public boolean update(Passenger passenger) throws SQLException {
+        boolean updated;
+        try {
+            updated = delegate.update(passenger);
+        } catch (SQLException | RuntimeException e) {
+            cache.invalidate(passenger.getId());
+            throw e;
+        }
+        if (updated) {
+            cacheWritten(passenger);
+        } else {
+            invalidateWritten(passenger.getId());
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean delete(int id) throws SQLException {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidateWritten(id);
+        }
+    }
+
+    @Override
+    public Optional<Passenger> findById(int id) throws SQLException {
+        if (transactions.isActive()) {
+            return delegate.findById(id);
+        }
+        Optional<Passenger> cached = cache.get(id);
+        if (cached.isPresent()) {
+            return cached.map(Passenger::new);
+        }
+
+        long stamp = cache.writeStamp();
+        Optional<Passenger> loaded = delegate.findById(id);
+        loaded.ifPresent(passenger -> cache.putLoaded(id, new Passenger(passenger), stamp));
+        return loaded;
+    }
+
+    /**
+     * Serves the cached ids and loads only the rest from the delegate, in one call.
+     */
+    @Override
+    public Map<Integer, Passenger> findByIds(Collection<Integer> ids) throws SQLException {
+        if (transactions.isActive()) {
+            return delegate.findByIds(ids);
+        }
+        Map<Integer, Passenger> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Optional<Passenger> cached = cache.get(id);
+            if (cached.isPresent()) {
+                found.put(id, new Passenger(cached.get()));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = cache.writeStamp();
+            delegate.findByIds(missing).forEach((id, passenger) -> {
+                cache.putLoaded(id, new Passenger(passenger), stamp);
+                found.put(id, passenger);
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public List<Passenger> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Passenger> stream() throws SQLException {
+        return delegate.stream();
+    }
+
+    @Override
+    public Page<Passenger> findPage(int afterId, int limit) throws SQLException {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Passenger> action) throws SQLException {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public boolean addToCar(int passengerId, int carId) throws SQLException {
+        return delegate.addToCar(passengerId, carId);
+    }
+
+    @Override
+    public SeatAssignment assignToCar(int passengerId, int carId, int capacity) throws SQLException {
+        return delegate.assignToCar(passengerId, carId, capacity);
+    }
+
+    @Override
+    public boolean removeFromCar(int passengerId, int carId) throws SQLException {
+        return delegate.removeFromCar(passengerId, carId);
+    }
+
+    @Override
+    public SeatAssignment assignAll(int carId, Collection<Integer> passengerIds, int capacity) throws SQLException {
+        return delegate.assignAll(carId, passengerIds, capacity);
+    }
+
+    @Override
+    public SeatAssignment moveAll(int fromCarId, int toCarId, int capacity) throws SQLException {
+        return delegate.moveAll(fromCarId, toCarId, capacity);
+    }
+
+    @Override
+    public int clearCar(int carId) throws SQLException {
+        return delegate.clearCar(carId);
+    }
+
+    @Override
+    public List<Passenger> findByCarId(int carId) throws SQLException {
+        return delegate.findByCarId(carId);
+    }
+
+    @Override
+    public boolean isInAnyCar(int passengerId) throws SQLException {
+        return delegate.isInAnyCar(passengerId);
+    }
+
+    @Override
+    public int getPassengerCountInCar(int carId) throws SQLException {
+        return delegate.getPassengerCountInCar(carId);
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public boolean isEnabled() {
+        return cache.isEnabled();
+    }
+
+    public void setEnabled(boolean enabled) {
+        cache.setEnabled(enabled);
+    }
+
+    private void cacheWritten(Passenger passenger) {
+        Passenger written = new Passenger(passenger);
+        transactions.afterCommit(() -> cache.put(written.getId(), written));
+    }
+
+    private void invalidateWritten(int id) {
+        transactions.afterCommit(() -> cache.invalidate(id));
+    }
+}
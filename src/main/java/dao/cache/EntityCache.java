@@ -0,0 +1,163 @@
+package dao.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static utils.Constants.*;
+
+/**
+ * Bounded LRU map whose entries also expire after a fixed time to live.
+ * An optional secondary key (e.g. a license plate) is indexed under the same
+ * lock, so lookups by that key never see an entry the cache already dropped.
+ */
+public final class EntityCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Function<V, ?> secondaryKey;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Object, K> keysBySecondaryKey = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long writeStamp;
+    private volatile boolean enabled = true;
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    public EntityCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, null);
+    }
+
+    public EntityCache(int maxEntries, Duration ttl, Function<V, ?> secondaryKey) {
+        if (maxEntries <= 0 || ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException(ERROR_INVALID_CACHE_CONFIG);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.secondaryKey = secondaryKey;
+    }
+
+    public synchronized Optional<V> get(K key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (entry.expiresAt() - System.nanoTime() <= 0) {
+            entries.remove(key);
+            unindex(key, entry.value());
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.value());
+    }
+
+    /**
+     * Looks an entry up by its secondary key. Only entries currently cached are found.
+     */
+    public synchronized Optional<V> getBySecondaryKey(Object value) {
+        K key = keysBySecondaryKey.get(value);
+        return key == null ? Optional.empty() : get(key);
+    }
+
+    /**
+     * Stamp to take before loading a value from the database; see {@link #putLoaded}.
+     */
+    public synchronized long writeStamp() {
+        return writeStamp;
+    }
+
+    /**
+     * Caches a value read from the database, unless a write went through the cache
+     * since {@code stamp} was taken; the loaded value may already be stale then.
+     */
+    public synchronized boolean putLoaded(K key, V value, long stamp) {
+        if (stamp != writeStamp) {
+            return false;
+        }
+        store(key, value);
+        return true;
+    }
+
+    /**
+     * Caches a value that was just written to the database.
+     */
+    public synchronized void put(K key, V value) {
+        writeStamp++;
+        store(key, value);
+    }
+
+    private void store(K key, V value) {
+        if (!enabled) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        if (previous != null) {
+            unindex(key, previous.value());
+        }
+        if (secondaryKey != null) {
+            keysBySecondaryKey.put(secondaryKey.apply(value), key);
+        }
+        evictOverflow();
+    }
+
+    public synchronized void invalidate(K key) {
+        writeStamp++;
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            unindex(key, removed.value());
+        }
+    }
+
+    public synchronized void clear() {
+        writeStamp++;
+        entries.clear();
+        keysBySecondaryKey.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turning the cache off drops every entry; lookups then always miss without being counted.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> eldestFirst = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldestFirst.hasNext()) {
+            Map.Entry<K, Entry<V>> eldest = eldestFirst.next();
+            eldestFirst.remove();
+            evictions.increment();
+            unindex(eldest.getKey(), eldest.getValue().value());
+        }
+    }
+
+    private void unindex(K key, V value) {
+        if (secondaryKey != null) {
+            keysBySecondaryKey.remove(secondaryKey.apply(value), key);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package dao.impl;
+
+import config.SQLQueries;
+import config.SQLQueries.CarPassengerQueries;
+import dao.BatchResult;
+
+import javax.sql.DataSource;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static config.SQLQueries.MAX_IN_PARAMETERS;
+import static utils.Constants.*;
+
+/**
+ * Shared JDBC batch and seat counter handling for the DAO implementations.
+ */
+final class BatchSupport {
+
+    private BatchSupport() {
+    }
+
+    static void validateBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(ERROR_INVALID_BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Loads the rows of {@code template}, a query with one {@code id IN (%s)} list, for
+     * every id in {@code ids}: one statement per {@link SQLQueries#MAX_IN_PARAMETERS}
+     * ids, all on one connection. Ids without a row are absent from the result.
+     */
+    static <T> Map<Integer, T> findByIds(DataSource dataSource, String template, Collection<Integer> ids,
+                                         JdbcStreams.RowMapper<T> mapper) throws SQLException {
+        List<Integer> unique = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, T> rows = new HashMap<>(unique.size() * 2);
+        if (unique.isEmpty()) {
+            return rows;
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            for (int from = 0; from < unique.size(); from += MAX_IN_PARAMETERS) {
+                List<Integer> chunk = unique.subList(from, Math.min(from + MAX_IN_PARAMETERS, unique.size()));
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        SQLQueries.withPlaceholders(template, chunk.size()))) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            rows.put(rs.getInt(COLUMN_ID), mapper.map(rs));
+                        }
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Executes the statements queued for {@code chunk} and commits them as one transaction.
+     * Rows the driver rejected are reported as failures; every other row receives its generated id.
+     */
+    static <T> void executeInsertChunk(Connection conn, PreparedStatement pstmt, List<T> chunk,
+                                       BatchResult<T> result, BiConsumer<T, Integer> idSetter)
+            throws SQLException {
+        int[] updateCounts;
+        BatchUpdateException batchError = null;
+        try {
+            updateCounts = pstmt.executeBatch();
+        } catch (BatchUpdateException e) {
+            batchError = e;
+            updateCounts = e.getUpdateCounts() == null ? new int[0] : e.getUpdateCounts();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            for (int i = 0; i < chunk.size(); i++) {
+                T item = chunk.get(i);
+                if (i >= updateCounts.length) {
+                    result.addFailure(item, ERROR_BATCH_NOT_EXECUTED);
+                } else if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                    result.addFailure(item, batchError == null ? ERROR_CREATE_NO_ROWS : batchError.getMessage());
+                } else if (generatedKeys.next()) {
+                    idSetter.accept(item, generatedKeys.getInt(1));
+                    result.addInserted(item);
+                } else {
+                    result.addFailure(item, ERROR_CREATE_NO_ID);
+                }
+            }
+        }
+        conn.commit();
+    }
+
+    /** Stored counter of a car, read with its row locked; {@code null} if the car is gone. */
+    static Integer lockedCount(Connection conn, int carId) throws SQLException {
+        try (PreparedStatement lock = conn.prepareStatement(CarPassengerQueries.LOCK_CAR)) {
+            lock.setInt(1, carId);
+            try (ResultSet rs = lock.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /**
+     * @return whether the car still exists
+     */
+    static boolean setPassengerCount(Connection conn, int carId, int count) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement(CarPassengerQueries.SET_PASSENGER_COUNT)) {
+            update.setInt(1, count);
+            update.setInt(2, carId);
+            return update.executeUpdate() > 0;
+        }
+    }
+}
@@ -1,24 +1,59 @@
 package dao.impl;
 
+import dao.BatchResult;
 import dao.CarDAO;
+import dao.Page;
+import dao.SyncResult;
 import model.Car;
+import model.Passenger;
 import config.DatabaseConnection;
+import config.SQLQueries;
 import config.SQLQueries.CarQueries;
+import config.SQLQueries.CarPassengerQueries;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static config.SQLQueries.MAX_IN_PARAMETERS;
 import static utils.Constants.*;
 
 public final class CarDAOImpl implements CarDAO {
 
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    public CarDAOImpl() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public CarDAOImpl(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    public CarDAOImpl(DataSource dataSource, int batchSize) {
+        BatchSupport.validateBatchSize(batchSize);
+        this.dataSource = Objects.requireNonNull(dataSource, ERROR_NULL_DATA_SOURCE);
+        this.batchSize = batchSize;
+    }
+
     @Override
     public Car insert(Car car) throws SQLException {
         validateCar(car);
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(
                      CarQueries.INSERT,
                      Statement.RETURN_GENERATED_KEYS)) {
@@ -33,18 +68,83 @@ public final class CarDAOImpl implements CarDAO {
         }
     }
 
+    @Override
+    public BatchResult<Car> insertAll(Collection<Car> cars) throws SQLException {
+        if (cars == null) {
+            throw new IllegalArgumentException(ERROR_NULL_COLLECTION);
+        }
+
+        BatchResult<Car> result = new BatchResult<>();
+        List<Car> rows = new ArrayList<>(cars.size());
+        for (Car car : cars) {
+            if (car == null) {
+                result.addFailure(null, ERROR_NULL_CAR);
+            } else {
+                rows.add(car);
+            }
+        }
+        if (rows.isEmpty()) {
+            return result;
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     CarQueries.INSERT,
+                     Statement.RETURN_GENERATED_KEYS)) {
+
+            conn.setAutoCommit(false);
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<Car> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+                for (Car car : chunk) {
+                    setCarParameters(pstmt, car);
+                    pstmt.addBatch();
+                }
+                BatchSupport.executeInsertChunk(conn, pstmt, chunk, result, Car::setId);
+            }
+            return result;
+
+        } catch (SQLException e) {
+            System.err.println(ERROR_INSERT_BATCH + rows.size());
+            throw e;
+        }
+    }
+
     @Override
     public boolean update(Car car) throws SQLException {
         validateCarWithId(car);
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(CarQueries.UPDATE)) {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!executeUpdate(conn, car)) {
+                return false;
+            }
+            car.setVersion(car.getVersion() + 1);
+            return true;
 
-            setCarParameters(pstmt, car);
-            pstmt.setInt(5, car.getId());
+        } catch (SQLException e) {
+            System.err.println(ERROR_UPDATE + car);
+            throw e;
+        }
+    }
 
-            return pstmt.executeUpdate() > 0;
+    @Override
+    public Optional<Car> updateReturningPrevious(Car car) throws SQLException {
+        validateCarWithId(car);
 
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Optional<Car> previous = lockById(conn, car.getId());
+                if (previous.isEmpty() || !executeUpdate(conn, car)) {
+                    conn.rollback();
+                    return Optional.empty();
+                }
+                conn.commit();
+                car.setVersion(car.getVersion() + 1);
+                return previous;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println(ERROR_UPDATE + car);
             throw e;
@@ -53,7 +153,7 @@ public final class CarDAOImpl implements CarDAO {
 
     @Override
     public boolean delete(int id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(CarQueries.DELETE)) {
 
             pstmt.setInt(1, id);
@@ -65,9 +165,32 @@ public final class CarDAOImpl implements CarDAO {
         }
     }
 
+    @Override
+    public Optional<Car> deleteReturningPrevious(int id) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(CarQueries.DELETE)) {
+                Optional<Car> previous = lockById(conn, id);
+                pstmt.setInt(1, id);
+                if (previous.isEmpty() || pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return Optional.empty();
+                }
+                conn.commit();
+                return previous;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println(ERROR_DELETE + id);
+            throw e;
+        }
+    }
+
     @Override
     public Optional<Car> findById(int id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(CarQueries.FIND_BY_ID)) {
 
             pstmt.setInt(1, id);
@@ -82,13 +205,23 @@ public final class CarDAOImpl implements CarDAO {
         }
     }
 
+    @Override
+    public Map<Integer, Car> findByIds(Collection<Integer> ids) throws SQLException {
+        try {
+            return BatchSupport.findByIds(dataSource, CarQueries.FIND_BY_IDS, ids, this::extractCarFromResultSet);
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_BY_IDS + ids.size());
+            throw e;
+        }
+    }
+
     @Override
     public List<Car> findAll() throws SQLException {
         List<Car> cars = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(CarQueries.FIND_ALL)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(CarQueries.FIND_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 cars.add(extractCarFromResultSet(rs));
@@ -101,9 +234,144 @@ public final class CarDAOImpl implements CarDAO {
         }
     }
 
+    @Override
+    public Stream<Car> stream() throws SQLException {
+        try {
+            return JdbcStreams.stream(dataSource, CarQueries.FIND_ALL, this::extractCarFromResultSet, ERROR_FIND_ALL);
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_ALL);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page<Car> findPage(int afterId, int limit) throws SQLException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_PAGE_SIZE, MAX_PAGE_SIZE));
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(CarQueries.FIND_PAGE)) {
+
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, limit + 1);
+            List<Car> cars = new ArrayList<>(limit + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    cars.add(extractCarFromResultSet(rs));
+                }
+            }
+
+            if (cars.size() <= limit) {
+                return new Page<>(cars, null);
+            }
+            List<Car> items = cars.subList(0, limit);
+            return new Page<>(items, items.get(limit - 1).getId());
+
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_PAGE + afterId);
+            throw e;
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Car> action) throws SQLException {
+        try {
+            JdbcStreams.forEach(dataSource, CarQueries.FIND_ALL, this::extractCarFromResultSet, action);
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_ALL);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<Car, List<Passenger>> findAllWithPassengers() throws SQLException {
+        Map<Car, List<Passenger>> carsWithPassengers = new LinkedHashMap<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(CarPassengerQueries.FIND_ALL_CARS_WITH_PASSENGERS);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            Car current = null;
+            List<Passenger> passengers = null;
+            while (rs.next()) {
+                int carId = rs.getInt(COLUMN_ID);
+                if (current == null || current.getId() != carId) {
+                    current = extractCarFromResultSet(rs);
+                    passengers = new ArrayList<>();
+                    carsWithPassengers.put(current, passengers);
+                }
+
+                int passengerId = rs.getInt(COLUMN_PASSENGER_ID);
+                if (!rs.wasNull()) {
+                    passengers.add(extractPassengerFromJoin(rs, passengerId));
+                }
+            }
+            return carsWithPassengers;
+
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_ALL_WITH_PASSENGERS);
+            throw e;
+        }
+    }
+
+    @Override
+    public List<Car> findByPassengerId(int passengerId) throws SQLException {
+        List<Car> cars = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(CarPassengerQueries.FIND_CARS_BY_PASSENGER)) {
+
+            pstmt.setInt(1, passengerId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    cars.add(extractCarFromResultSet(rs));
+                }
+            }
+            return cars;
+
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_BY_PASSENGER + passengerId);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<Integer, List<Car>> findByPassengerIds(Collection<Integer> passengerIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(passengerIds));
+        Map<Integer, List<Car>> carsByPassenger = new HashMap<>();
+        if (ids.isEmpty()) {
+            return carsByPassenger;
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            for (int from = 0; from < ids.size(); from += MAX_IN_PARAMETERS) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IN_PARAMETERS, ids.size()));
+                try (PreparedStatement pstmt = conn.prepareStatement(SQLQueries.withPlaceholders(
+                        CarPassengerQueries.FIND_CARS_BY_PASSENGERS, chunk.size()))) {
+
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            carsByPassenger.computeIfAbsent(rs.getInt(COLUMN_PASSENGER_ID), id -> new ArrayList<>())
+                                    .add(extractCarFromResultSet(rs));
+                        }
+                    }
+                }
+            }
+            return carsByPassenger;
+
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_BY_PASSENGERS + ids.size());
+            throw e;
+        }
+    }
+
     @Override
     public boolean existsByLicensePlate(String licensePlate) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(CarQueries.EXISTS_BY_LICENSE_PLATE)) {
 
             pstmt.setString(1, licensePlate);
@@ -116,6 +384,154 @@ public final class CarDAOImpl implements CarDAO {
         }
     }
 
+    @Override
+    public Set<String> findExistingLicensePlates(Collection<String> licensePlates) throws SQLException {
+        List<String> plates = new ArrayList<>(new LinkedHashSet<>(licensePlates));
+        Set<String> existing = new HashSet<>();
+        if (plates.isEmpty()) {
+            return existing;
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            for (int from = 0; from < plates.size(); from += MAX_IN_PARAMETERS) {
+                List<String> chunk = plates.subList(from, Math.min(from + MAX_IN_PARAMETERS, plates.size()));
+                try (PreparedStatement pstmt = conn.prepareStatement(SQLQueries.withPlaceholders(
+                        CarQueries.FIND_EXISTING_LICENSE_PLATES, chunk.size()))) {
+
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            existing.add(rs.getString(COLUMN_LICENSE_PLATE));
+                        }
+                    }
+                }
+            }
+            return existing;
+
+        } catch (SQLException e) {
+            System.err.println(ERROR_LICENSE_PLATE + plates.size());
+            throw e;
+        }
+    }
+
+    /**
+     * Classifies the feed against one read of the table, then sends only the new and
+     * changed rows as multi-row upserts of {@code batchSize} rows. Cars found in the
+     * table get their id and resulting version; inserted cars keep theirs unset.
+     */
+    @Override
+    public SyncResult upsertAll(Collection<Car> cars, boolean deleteMissing) throws SQLException {
+        if (cars == null) {
+            throw new IllegalArgumentException(ERROR_NULL_COLLECTION);
+        }
+        Map<String, Car> feed = new LinkedHashMap<>();
+        for (Car car : cars) {
+            validateCar(car);
+            feed.put(car.getLicensePlate(), car);
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<String, Car> stored = findAllByLicensePlate(conn);
+                List<Car> pending = new ArrayList<>();
+                int inserted = 0;
+                int updated = 0;
+                int unchanged = 0;
+                for (Car car : feed.values()) {
+                    Car current = stored.remove(car.getLicensePlate());
+                    if (current == null) {
+                        inserted++;
+                        pending.add(car);
+                    } else {
+                        car.setId(current.getId());
+                        if (sameDetails(current, car)) {
+                            unchanged++;
+                            car.setVersion(current.getVersion());
+                        } else {
+                            updated++;
+                            car.setVersion(current.getVersion() + 1);
+                            pending.add(car);
+                        }
+                    }
+                }
+                upsert(conn, pending);
+                Set<String> deleted = deleteMissing ? deleteCars(conn, stored.values()) : Set.of();
+                conn.commit();
+                return new SyncResult(inserted, updated, unchanged, deleted);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println(ERROR_SYNC + feed.size());
+            throw e;
+        }
+    }
+
+    private Map<String, Car> findAllByLicensePlate(Connection conn) throws SQLException {
+        Map<String, Car> cars = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(CarQueries.FIND_ALL)) {
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Car car = extractCarFromResultSet(rs);
+                    cars.put(car.getLicensePlate(), car);
+                }
+            }
+        }
+        return cars;
+    }
+
+    private void upsert(Connection conn, List<Car> cars) throws SQLException {
+        for (int from = 0; from < cars.size(); from += batchSize) {
+            List<Car> chunk = cars.subList(from, Math.min(from + batchSize, cars.size()));
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    SQLQueries.withRows(CarQueries.UPSERT, chunk.size()))) {
+                int index = 1;
+                for (Car car : chunk) {
+                    pstmt.setString(index++, car.getLicensePlate());
+                    pstmt.setString(index++, car.getBrand());
+                    pstmt.setString(index++, car.getModel());
+                    pstmt.setString(index++, car.getColor());
+                }
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    /** Deletes {@code cars} and their passenger assignments; returns their license plates. */
+    private static Set<String> deleteCars(Connection conn, Collection<Car> cars) throws SQLException {
+        List<Car> rows = new ArrayList<>(cars);
+        Set<String> plates = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += MAX_IN_PARAMETERS) {
+            List<Car> chunk = rows.subList(from, Math.min(from + MAX_IN_PARAMETERS, rows.size()));
+            deleteByIds(conn, CarPassengerQueries.REMOVE_ALL_FROM_CARS, chunk);
+            deleteByIds(conn, CarQueries.DELETE_BY_IDS, chunk);
+            for (Car car : chunk) {
+                plates.add(car.getLicensePlate());
+            }
+        }
+        return plates;
+    }
+
+    private static void deleteByIds(Connection conn, String template, List<Car> cars) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQLQueries.withPlaceholders(template, cars.size()))) {
+            for (int i = 0; i < cars.size(); i++) {
+                pstmt.setInt(i + 1, cars.get(i).getId());
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static boolean sameDetails(Car stored, Car car) {
+        return Objects.equals(stored.getBrand(), car.getBrand())
+                && Objects.equals(stored.getModel(), car.getModel())
+                && Objects.equals(stored.getColor(), car.getColor());
+    }
+
     private void executeInsert(PreparedStatement pstmt, Car car) throws SQLException {
         int rowsAffected = pstmt.executeUpdate();
         if (rowsAffected == 0) {
@@ -131,6 +547,27 @@ public final class CarDAOImpl implements CarDAO {
         }
     }
 
+    /**
+     * Runs the optimistic {@code UPDATE}; the caller bumps the car's version once it is committed.
+     */
+    private boolean executeUpdate(Connection conn, Car car) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CarQueries.UPDATE)) {
+            setCarParameters(pstmt, car);
+            pstmt.setInt(5, car.getId());
+            pstmt.setInt(6, car.getVersion());
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    private Optional<Car> lockById(Connection conn, int id) throws SQLException {
+        try (PreparedStatement lock = conn.prepareStatement(CarQueries.LOCK_BY_ID)) {
+            lock.setInt(1, id);
+            try (ResultSet rs = lock.executeQuery()) {
+                return rs.next() ? Optional.of(extractCarFromResultSet(rs)) : Optional.empty();
+            }
+        }
+    }
+
     private Car extractCarFromResultSet(ResultSet rs) throws SQLException {
         Car car = new Car();
         car.setId(rs.getInt(COLUMN_ID));
@@ -138,9 +575,20 @@ public final class CarDAOImpl implements CarDAO {
         car.setBrand(rs.getString(COLUMN_BRAND));
         car.setModel(rs.getString(COLUMN_MODEL));
         car.setColor(rs.getString(COLUMN_COLOR));
+        car.setVersion(rs.getInt(COLUMN_VERSION));
         return car;
     }
 
+    private Passenger extractPassengerFromJoin(ResultSet rs, int passengerId) throws SQLException {
+        Passenger passenger = new Passenger();
+        passenger.setId(passengerId);
+        passenger.setName(rs.getString(COLUMN_NAME));
+        passenger.setAge(rs.getInt(COLUMN_AGE));
+        passenger.setWeight(rs.getDouble(COLUMN_WEIGHT));
+        passenger.setVersion(rs.getInt(COLUMN_PASSENGER_VERSION));
+        return passenger;
+    }
+
     private void setCarParameters(PreparedStatement pstmt, Car car) throws SQLException {
         pstmt.setString(1, car.getLicensePlate());
         pstmt.setString(2, car.getBrand());
@@ -0,0 +1,106 @@
+package dao.impl;
+
+import utils.DealershipExceptions.DatabaseException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static utils.Constants.*;
+
+/**
+ * Row-by-row reading of large result sets through a forward-only, read-only cursor.
+ * The driver fetches {@link utils.Constants#STREAM_FETCH_SIZE} rows at a time, so
+ * memory use does not depend on the size of the table.
+ */
+final class JdbcStreams {
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private JdbcStreams() {
+    }
+
+    static <T> void forEach(DataSource dataSource, String sql, RowMapper<T> mapper, Consumer<? super T> action)
+            throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = openCursor(conn, sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                action.accept(mapper.map(rs));
+            }
+        }
+    }
+
+    /**
+     * Lazily streams the rows of {@code sql}. The connection stays borrowed until
+     * the stream is closed, so callers must use try-with-resources.
+     */
+    static <T> Stream<T> stream(DataSource dataSource, String sql, RowMapper<T> mapper, String errorMessage)
+            throws SQLException {
+        Connection conn = dataSource.getConnection();
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = openCursor(conn, sql);
+            ResultSet rs = pstmt.executeQuery();
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(mapper.map(rs));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new DatabaseException(errorMessage, e);
+                    }
+                }
+            };
+            PreparedStatement statement = pstmt;
+            return StreamSupport.stream(rows, false)
+                    .onClose(() -> closeAll(rs, statement, conn, errorMessage));
+        } catch (SQLException | RuntimeException e) {
+            closeAll(null, pstmt, conn, errorMessage);
+            throw e;
+        }
+    }
+
+    private static PreparedStatement openCursor(Connection conn, String sql) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(STREAM_FETCH_SIZE);
+        return pstmt;
+    }
+
+    private static void closeAll(AutoCloseable rs, AutoCloseable pstmt, AutoCloseable conn, String errorMessage) {
+        SQLException failure = null;
+        for (AutoCloseable resource : new AutoCloseable[]{rs, pstmt, conn}) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = new SQLException(errorMessage, e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw new DatabaseException(errorMessage, failure);
+        }
+    }
+}
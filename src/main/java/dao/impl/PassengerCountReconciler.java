@@ -0,0 +1,156 @@
+package dao.impl;
+
+import config.DatabaseConnection;
+import config.RoutingDataSource;
+import config.SQLQueries.CarPassengerQueries;
+import config.SQLQueries.CarQueries;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static utils.Constants.*;
+
+/**
+ * Repairs {@code cars.passenger_count} where it no longer matches
+ * {@code car_passengers}, e.g. after rows were changed by hand. Cars are scanned in
+ * id ranges so no statement reads the whole table; each drifting car is then
+ * recounted under its row lock, the same lock seat assignments take.
+ */
+public final class PassengerCountReconciler implements AutoCloseable {
+
+    private static final int RANGE_SIZE = 1_000;
+
+    private final DataSource dataSource;
+    private ScheduledExecutorService scheduler;
+
+    public PassengerCountReconciler() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public PassengerCountReconciler(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, ERROR_NULL_DATA_SOURCE);
+    }
+
+    /**
+     * @return the number of cars whose counter was corrected
+     */
+    public int reconcile() throws SQLException {
+        int repaired = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            int maxId = maxCarId(conn);
+            for (int from = 0; from < maxId; from += RANGE_SIZE) {
+                for (int carId : findDrift(conn, from, from + RANGE_SIZE)) {
+                    if (repair(conn, carId)) {
+                        repaired++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(ERROR_RECONCILE_PASSENGER_COUNT + e.getMessage());
+            throw e;
+        }
+        return repaired;
+    }
+
+    /**
+     * Runs {@link #reconcile()} every {@code period} from a daemon thread, until {@link #close()}.
+     */
+    public synchronized void schedule(Duration period) {
+        if (scheduler != null) {
+            throw new IllegalStateException(ERROR_RECONCILER_RUNNING);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, RECONCILER_THREAD);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = period.toMillis();
+        scheduler.scheduleWithFixedDelay(RoutingDataSource.inCallerSession(dataSource, () -> {
+            try {
+                int repaired = reconcile();
+                if (repaired > 0) {
+                    System.err.println(String.format(WARN_PASSENGER_COUNT_REPAIRED, repaired));
+                }
+            } catch (SQLException e) {
+                // Already reported; try again next period.
+            }
+        }), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private static int maxCarId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(CarQueries.MAX_ID)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static List<Integer> findDrift(Connection conn, int afterId, int toId) throws SQLException {
+        List<Integer> carIds = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(CarPassengerQueries.FIND_PASSENGER_COUNT_DRIFT)) {
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, toId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    carIds.add(rs.getInt(1));
+                }
+            }
+        }
+        return carIds;
+    }
+
+    /**
+     * Recounts one car while holding its row lock. READ COMMITTED makes the count
+     * see assignments committed while this transaction waited for the lock.
+     */
+    private static boolean repair(Connection conn, int carId) throws SQLException {
+        int isolation = conn.getTransactionIsolation();
+        conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        conn.setAutoCommit(false);
+        try {
+            boolean repaired = false;
+            Integer stored = BatchSupport.lockedCount(conn, carId);
+            if (stored != null) {
+                int actual = countAssignments(conn, carId);
+                if (actual != stored) {
+                    repaired = BatchSupport.setPassengerCount(conn, carId, actual);
+                }
+            }
+            conn.commit();
+            return repaired;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            conn.setTransactionIsolation(isolation);
+        }
+    }
+
+    private static int countAssignments(Connection conn, int carId) throws SQLException {
+        try (PreparedStatement count = conn.prepareStatement(CarPassengerQueries.COUNT_PASSENGERS_IN_CAR)) {
+            count.setInt(1, carId);
+            try (ResultSet rs = count.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+}
@@ -1,26 +1,56 @@
 package dao.impl;
 
+import dao.BatchResult;
 import dao.PassengerDAO;
+import dao.SeatAssignment;
+import dao.Page;
 import model.Passenger;
 import config.DatabaseConnection;
+import config.SQLQueries;
+import config.SQLQueries.CarQueries;
 import config.SQLQueries.PassengerQueries;
 import config.SQLQueries.CarPassengerQueries;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static config.SQLQueries.MAX_IN_PARAMETERS;
 import static utils.Constants.*;
 
 
 public final class PassengerDAOImpl implements PassengerDAO {
 
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    public PassengerDAOImpl() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public PassengerDAOImpl(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    public PassengerDAOImpl(DataSource dataSource, int batchSize) {
+        BatchSupport.validateBatchSize(batchSize);
+        this.dataSource = Objects.requireNonNull(dataSource, ERROR_NULL_DATA_SOURCE);
+        this.batchSize = batchSize;
+    }
+
     @Override
     public Passenger insert(Passenger passenger) throws SQLException {
         validatePassenger(passenger);
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(
                      PassengerQueries.INSERT,
                      Statement.RETURN_GENERATED_KEYS)) {
@@ -35,16 +65,62 @@ public final class PassengerDAOImpl implements PassengerDAO {
         }
     }
 
+    @Override
+    public BatchResult<Passenger> insertAll(Collection<Passenger> passengers) throws SQLException {
+        if (passengers == null) {
+            throw new IllegalArgumentException(ERROR_NULL_COLLECTION);
+        }
+
+        BatchResult<Passenger> result = new BatchResult<>();
+        List<Passenger> rows = new ArrayList<>(passengers.size());
+        for (Passenger passenger : passengers) {
+            if (passenger == null) {
+                result.addFailure(null, ERROR_NULL_PASSENGER);
+            } else {
+                rows.add(passenger);
+            }
+        }
+        if (rows.isEmpty()) {
+            return result;
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     PassengerQueries.INSERT,
+                     Statement.RETURN_GENERATED_KEYS)) {
+
+            conn.setAutoCommit(false);
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                List<Passenger> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+                for (Passenger passenger : chunk) {
+                    setPassengerParameters(pstmt, passenger);
+                    pstmt.addBatch();
+                }
+                BatchSupport.executeInsertChunk(conn, pstmt, chunk, result, Passenger::setId);
+            }
+            return result;
+
+        } catch (SQLException e) {
+            System.err.println(ERROR_INSERT_BATCH + rows.size());
+            throw e;
+        }
+    }
+
     @Override
     public boolean update(Passenger passenger) throws SQLException {
         validatePassengerWithId(passenger);
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(PassengerQueries.UPDATE)) {
 
             setPassengerParameters(pstmt, passenger);
             pstmt.setInt(4, passenger.getId());
-            return pstmt.executeUpdate() > 0;
+            pstmt.setInt(5, passenger.getVersion());
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            passenger.setVersion(passenger.getVersion() + 1);
+            return true;
 
         } catch (SQLException e) {
             System.err.println(ERROR_UPDATE + passenger);
@@ -54,7 +130,7 @@ public final class PassengerDAOImpl implements PassengerDAO {
 
     @Override
     public boolean delete(int id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(PassengerQueries.DELETE)) {
 
             pstmt.setInt(1, id);
@@ -68,7 +144,7 @@ public final class PassengerDAOImpl implements PassengerDAO {
 
     @Override
     public Optional<Passenger> findById(int id) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(PassengerQueries.FIND_BY_ID)) {
 
             pstmt.setInt(1, id);
@@ -82,13 +158,23 @@ public final class PassengerDAOImpl implements PassengerDAO {
         }
     }
 
+    @Override
+    public Map<Integer, Passenger> findByIds(Collection<Integer> ids) throws SQLException {
+        try {
+            return BatchSupport.findByIds(dataSource, PassengerQueries.FIND_BY_IDS, ids, this::extractPassengerFromResultSet);
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_BY_IDS + ids.size());
+            throw e;
+        }
+    }
+
     @Override
     public List<Passenger> findAll() throws SQLException {
         List<Passenger> passengers = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(PassengerQueries.FIND_ALL)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PassengerQueries.FIND_ALL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 passengers.add(extractPassengerFromResultSet(rs));
@@ -102,33 +188,208 @@ public final class PassengerDAOImpl implements PassengerDAO {
     }
 
     @Override
-    public boolean addToCar(int passengerId, int carId) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     CarPassengerQueries.ADD_PASSENGER_TO_CAR)) {
+    public Stream<Passenger> stream() throws SQLException {
+        try {
+            return JdbcStreams.stream(dataSource, PassengerQueries.FIND_ALL, this::extractPassengerFromResultSet, ERROR_FIND_ALL);
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_ALL);
+            throw e;
+        }
+    }
 
-            pstmt.setInt(1, carId);
-            pstmt.setInt(2, passengerId);
-            return pstmt.executeUpdate() > 0;
+    @Override
+    public Page<Passenger> findPage(int afterId, int limit) throws SQLException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_PAGE_SIZE, MAX_PAGE_SIZE));
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(PassengerQueries.FIND_PAGE)) {
+
+            pstmt.setInt(1, afterId);
+            pstmt.setInt(2, limit + 1);
+            List<Passenger> passengers = new ArrayList<>(limit + 1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    passengers.add(extractPassengerFromResultSet(rs));
+                }
+            }
+
+            if (passengers.size() <= limit) {
+                return new Page<>(passengers, null);
+            }
+            List<Passenger> items = passengers.subList(0, limit);
+            return new Page<>(items, items.get(limit - 1).getId());
+
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_PAGE + afterId);
+            throw e;
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Passenger> action) throws SQLException {
+        try {
+            JdbcStreams.forEach(dataSource, PassengerQueries.FIND_ALL, this::extractPassengerFromResultSet, action);
+        } catch (SQLException e) {
+            System.err.println(ERROR_FIND_ALL);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a seat and inserts the assignment in one transaction; nothing changes
+     * when the car is already at {@code MAX_PASSENGERS_PER_CAR}. The seat comes
+     * first, as in {@code assignToCar}: inserting first would take a shared lock on
+     * the car through the foreign key and then upgrade it, which deadlocks on InnoDB.
+     */
+    @Override
+    public boolean addToCar(int passengerId, int carId) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(CarPassengerQueries.ADD_PASSENGER_TO_CAR)) {
+                insert.setInt(1, carId);
+                insert.setInt(2, passengerId);
+                boolean added = reserveSeat(conn, carId, MAX_PASSENGERS_PER_CAR) && insert.executeUpdate() > 0;
+                if (added) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+                return added;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.printf((ERROR_ADD_TO_CAR) + "%n", passengerId, carId);
+            throw e;
+        }
+    }
 
+    @Override
+    public SeatAssignment assignToCar(int passengerId, int carId, int capacity) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                SeatAssignment result = assignInTransaction(conn, passengerId, carId, capacity);
+                if (result == SeatAssignment.ASSIGNED) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+                return result;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                conn.rollback();
+                return SeatAssignment.ALREADY_ASSIGNED;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.printf((ERROR_ADD_TO_CAR) + "%n", passengerId, carId);
             throw e;
         }
     }
 
+    /**
+     * Deletes the assignment and frees its seat in one transaction.
+     */
     @Override
     public boolean removeFromCar(int passengerId, int carId) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     CarPassengerQueries.REMOVE_PASSENGER_FROM_CAR)) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(CarPassengerQueries.REMOVE_PASSENGER_FROM_CAR);
+                 PreparedStatement release = conn.prepareStatement(CarPassengerQueries.RELEASE_SEAT)) {
+                delete.setInt(1, carId);
+                delete.setInt(2, passengerId);
+                boolean removed = delete.executeUpdate() > 0;
+                if (removed) {
+                    release.setInt(1, carId);
+                    release.executeUpdate();
+                }
+                conn.commit();
+                return removed;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.printf((ERROR_REMOVE_FROM_CAR) + "%n", passengerId, carId);
+            throw e;
+        }
+    }
 
-            pstmt.setInt(1, carId);
-            pstmt.setInt(2, passengerId);
-            return pstmt.executeUpdate() > 0;
+    @Override
+    public SeatAssignment assignAll(int carId, Collection<Integer> passengerIds, int capacity) throws SQLException {
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(passengerIds));
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                SeatAssignment result = assignAllInTransaction(conn, carId, ids, capacity);
+                if (result == SeatAssignment.ASSIGNED) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+                return result;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                conn.rollback();
+                return SeatAssignment.ALREADY_ASSIGNED;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.printf((ERROR_ASSIGN_ALL) + "%n", ids.size(), carId);
+            throw e;
+        }
+    }
 
+    @Override
+    public SeatAssignment moveAll(int fromCarId, int toCarId, int capacity) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                SeatAssignment result = moveAllInTransaction(conn, fromCarId, toCarId, capacity);
+                if (result == SeatAssignment.ASSIGNED) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+                return result;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                conn.rollback();
+                return SeatAssignment.ALREADY_ASSIGNED;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
-            System.err.printf((ERROR_REMOVE_FROM_CAR) + "%n", passengerId, carId);
+            System.err.printf((ERROR_MOVE_ALL) + "%n", fromCarId, toCarId);
+            throw e;
+        }
+    }
+
+    @Override
+    public int clearCar(int carId) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(CarPassengerQueries.REMOVE_ALL_FROM_CAR)) {
+                int removed = 0;
+                if (BatchSupport.lockedCount(conn, carId) != null) {
+                    delete.setInt(1, carId);
+                    removed = delete.executeUpdate();
+                    BatchSupport.setPassengerCount(conn, carId, 0);
+                }
+                conn.commit();
+                return removed;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.printf((ERROR_CLEAR_CAR) + "%n", carId);
             throw e;
         }
     }
@@ -137,7 +398,7 @@ public final class PassengerDAOImpl implements PassengerDAO {
     public List<Passenger> findByCarId(int carId) throws SQLException {
         List<Passenger> passengers = new ArrayList<>();
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(CarPassengerQueries.FIND_PASSENGERS_BY_CAR)) {
 
             pstmt.setInt(1, carId);
@@ -154,6 +415,106 @@ public final class PassengerDAOImpl implements PassengerDAO {
         return passengers;
     }
 
+    /**
+     * The guarded counter update both enforces the capacity and locks the car row,
+     * so concurrent assignments to the same car are serialized without a COUNT(*).
+     * Any result other than {@code ASSIGNED} must be rolled back.
+     */
+    private SeatAssignment assignInTransaction(Connection conn, int passengerId, int carId, int capacity)
+            throws SQLException {
+        if (!reserveSeat(conn, carId, capacity)) {
+            // Nothing reserved: only now pay for finding out why.
+            try (PreparedStatement exists = conn.prepareStatement(CarQueries.EXISTS_BY_ID)) {
+                exists.setInt(1, carId);
+                try (ResultSet rs = exists.executeQuery()) {
+                    return rs.next() && rs.getInt(1) > 0 ? SeatAssignment.CAR_FULL : SeatAssignment.CAR_NOT_FOUND;
+                }
+            }
+        }
+
+        try (PreparedStatement insert = conn.prepareStatement(CarPassengerQueries.ADD_EXISTING_PASSENGER_TO_CAR)) {
+            insert.setInt(1, carId);
+            insert.setInt(2, passengerId);
+            return insert.executeUpdate() > 0 ? SeatAssignment.ASSIGNED : SeatAssignment.PASSENGER_NOT_FOUND;
+        }
+    }
+
+    /**
+     * Locks the car, checks once that the whole group fits and inserts every
+     * assignment with {@code INSERT ... SELECT}, so ids without a passenger are
+     * simply not inserted. Any result other than {@code ASSIGNED} must be rolled back.
+     */
+    private SeatAssignment assignAllInTransaction(Connection conn, int carId, List<Integer> passengerIds, int capacity)
+            throws SQLException {
+        Integer seated = BatchSupport.lockedCount(conn, carId);
+        if (seated == null) {
+            return SeatAssignment.CAR_NOT_FOUND;
+        }
+        if (seated + passengerIds.size() > capacity) {
+            return SeatAssignment.CAR_FULL;
+        }
+
+        int inserted = 0;
+        for (int from = 0; from < passengerIds.size(); from += MAX_IN_PARAMETERS) {
+            List<Integer> chunk = passengerIds.subList(from, Math.min(from + MAX_IN_PARAMETERS, passengerIds.size()));
+            try (PreparedStatement insert = conn.prepareStatement(SQLQueries.withPlaceholders(
+                    CarPassengerQueries.ADD_EXISTING_PASSENGERS_TO_CAR, chunk.size()))) {
+                insert.setInt(1, carId);
+                for (int i = 0; i < chunk.size(); i++) {
+                    insert.setInt(i + 2, chunk.get(i));
+                }
+                inserted += insert.executeUpdate();
+            }
+        }
+        if (inserted < passengerIds.size()) {
+            return SeatAssignment.PASSENGER_NOT_FOUND;
+        }
+        BatchSupport.setPassengerCount(conn, carId, seated + inserted);
+        return SeatAssignment.ASSIGNED;
+    }
+
+    /**
+     * Locks both cars in id order, so two opposite moves cannot deadlock, re-points
+     * the assignments with one {@code UPDATE} and checks the target capacity against
+     * the rows actually moved. Any result other than {@code ASSIGNED} must be rolled back.
+     */
+    private static SeatAssignment moveAllInTransaction(Connection conn, int fromCarId, int toCarId, int capacity)
+            throws SQLException {
+        Integer first = BatchSupport.lockedCount(conn, Math.min(fromCarId, toCarId));
+        Integer second = BatchSupport.lockedCount(conn, Math.max(fromCarId, toCarId));
+        if (first == null || second == null) {
+            return SeatAssignment.CAR_NOT_FOUND;
+        }
+        if (fromCarId == toCarId) {
+            return SeatAssignment.ASSIGNED;
+        }
+        int seatedInTarget = toCarId < fromCarId ? first : second;
+
+        int moved;
+        try (PreparedStatement move = conn.prepareStatement(CarPassengerQueries.MOVE_PASSENGERS)) {
+            move.setInt(1, toCarId);
+            move.setInt(2, fromCarId);
+            moved = move.executeUpdate();
+        }
+        if (moved == 0) {
+            return SeatAssignment.ASSIGNED;
+        }
+        if (seatedInTarget + moved > capacity) {
+            return SeatAssignment.CAR_FULL;
+        }
+        BatchSupport.setPassengerCount(conn, fromCarId, 0);
+        BatchSupport.setPassengerCount(conn, toCarId, seatedInTarget + moved);
+        return SeatAssignment.ASSIGNED;
+    }
+
+    private static boolean reserveSeat(Connection conn, int carId, int capacity) throws SQLException {
+        try (PreparedStatement reserve = conn.prepareStatement(CarPassengerQueries.RESERVE_SEAT)) {
+            reserve.setInt(1, carId);
+            reserve.setInt(2, capacity);
+            return reserve.executeUpdate() > 0;
+        }
+    }
+
     private void executeInsert(PreparedStatement pstmt, Passenger passenger) throws SQLException {
         int rowsAffected = pstmt.executeUpdate();
         if (rowsAffected == 0) {
@@ -175,6 +536,7 @@ public final class PassengerDAOImpl implements PassengerDAO {
         passenger.setName(rs.getString(COLUMN_NAME));
         passenger.setAge(rs.getInt(COLUMN_AGE));
         passenger.setWeight(rs.getDouble(COLUMN_WEIGHT));
+        passenger.setVersion(rs.getInt(COLUMN_VERSION));
         return passenger;
     }
 
@@ -209,21 +571,22 @@ public final class PassengerDAOImpl implements PassengerDAO {
 
     @Override
     public boolean isInAnyCar(int passengerId) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(CarPassengerQueries.CHECK_PASSENGER_IN_CAR)) {
 
             pstmt.setInt(1, passengerId);
             ResultSet rs = pstmt.executeQuery();
-            return rs.next() && rs.getInt(1) > 0;
+            return rs.next() && rs.getBoolean(1);
         } catch (SQLException e) {
             System.err.println(ERROR_FIND_BY_CAR + passengerId);
             throw e;
         }
     }
+
     @Override
     public int getPassengerCountInCar(int carId) throws SQLException {
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(CarPassengerQueries.COUNT_PASSENGERS_IN_CAR)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(CarPassengerQueries.FIND_PASSENGER_COUNT)) {
 
             pstmt.setInt(1, carId);
             ResultSet rs = pstmt.executeQuery();
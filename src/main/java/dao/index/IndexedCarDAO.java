@@ -0,0 +1,262 @@
+package dao.index;
+
+import config.DatabaseConnection;
+import config.TransactionAwareDataSource;
+import dao.BatchResult;
+import dao.CarDAO;
+import dao.Page;
+import dao.SyncResult;
+import model.Car;
+import model.Passenger;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static utils.Constants.*;
+
+/**
+ * Filters license plate existence checks through an in-memory {@link PlateIndex}.
+ * The index is only trusted to say a plate is free: a plate missing from it is
+ * reported as free without a query, and a plate in it is confirmed with the
+ * delegate, which also clears plates that turn out to be gone. The index is filled
+ * by {@link #load()} and kept in sync by the writes that go through this DAO; until
+ * it is loaded, checks go to the delegate. A plate inserted by another process is
+ * still rejected by the unique constraint (and then indexed); one it deleted is
+ * cleared by the next check that confirms it.
+ * <p>
+ * Updates and deletes go through the delegate's {@code ...ReturningPrevious} variants,
+ * which read the row they replace under its lock, so the plate a car gives up is
+ * released as soon as the write commits.
+ * <p>
+ * Inside a transaction of the {@link TransactionAwareDataSource}, checks go to the
+ * delegate and the index changes of writes wait until the transaction commits.
+ */
+public final class IndexedCarDAO implements CarDAO {
+
+    private final CarDAO delegate;
+    private final TransactionAwareDataSource transactions;
+    private final PlateIndex index = new PlateIndex();
+    private final Set<String> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    public IndexedCarDAO(CarDAO delegate) {
+        this(delegate, DatabaseConnection.getDataSource());
+    }
+
+    public IndexedCarDAO(CarDAO delegate, TransactionAwareDataSource transactions) {
+        this.delegate = Objects.requireNonNull(delegate, ERROR_NULL_CAR_DAO);
+        this.transactions = Objects.requireNonNull(transactions, ERROR_NULL_DATA_SOURCE);
+    }
+
+    /**
+     * Rebuilds the index from every car in the delegate. Plates removed while the
+     * scan runs are dropped again afterwards, so a concurrent delete cannot leave
+     * a stale entry behind.
+     */
+    public synchronized void load() throws SQLException {
+        index.markLoaded(false);
+        index.clear();
+        removedWhileLoading.clear();
+        loading = true;
+        try {
+            delegate.forEach(car -> index.add(car.getLicensePlate()));
+            loading = false;
+            removedWhileLoading.forEach(index::remove);
+            index.markLoaded(true);
+        } finally {
+            loading = false;
+            removedWhileLoading.clear();
+        }
+    }
+
+    public PlateIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public Car insert(Car car) throws SQLException {
+        Car inserted;
+        try {
+            inserted = delegate.insert(car);
+        } catch (SQLException e) {
+            if (isConstraintViolation(e)) {
+                // Someone else holds the plate; remember it so the next check fails fast.
+                index.add(car.getLicensePlate());
+            }
+            throw e;
+        }
+        addPlate(inserted.getLicensePlate());
+        return inserted;
+    }
+
+    @Override
+    public BatchResult<Car> insertAll(Collection<Car> cars) throws SQLException {
+        BatchResult<Car> result = delegate.insertAll(cars);
+        for (Car car : result.getInserted()) {
+            addPlate(car.getLicensePlate());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean update(Car car) throws SQLException {
+        return updateReturningPrevious(car).isPresent();
+    }
+
+    @Override
+    public Optional<Car> updateReturningPrevious(Car car) throws SQLException {
+        Optional<Car> previous;
+        try {
+            previous = delegate.updateReturningPrevious(car);
+        } catch (SQLException e) {
+            if (isConstraintViolation(e)) {
+                index.add(car.getLicensePlate());
+            }
+            throw e;
+        }
+        if (previous.isPresent()) {
+            addPlate(car.getLicensePlate());
+            previous.map(Car::getLicensePlate)
+                    .filter(plate -> !plate.equals(car.getLicensePlate()))
+                    .ifPresent(this::removePlate);
+        }
+        return previous;
+    }
+
+    @Override
+    public SyncResult upsertAll(Collection<Car> cars, boolean deleteMissing) throws SQLException {
+        SyncResult result = delegate.upsertAll(cars, deleteMissing);
+        for (Car car : cars) {
+            addPlate(car.getLicensePlate());
+        }
+        result.deletedLicensePlates().forEach(this::removePlate);
+        return result;
+    }
+
+    @Override
+    public boolean delete(int id) throws SQLException {
+        return deleteReturningPrevious(id).isPresent();
+    }
+
+    @Override
+    public Optional<Car> deleteReturningPrevious(int id) throws SQLException {
+        Optional<Car> deleted = delegate.deleteReturningPrevious(id);
+        deleted.map(Car::getLicensePlate).ifPresent(this::removePlate);
+        return deleted;
+    }
+
+    @Override
+    public Optional<Car> findById(int id) throws SQLException {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Map<Integer, Car> findByIds(Collection<Integer> ids) throws SQLException {
+        return delegate.findByIds(ids);
+    }
+
+    @Override
+    public List<Car> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Car> stream() throws SQLException {
+        return delegate.stream();
+    }
+
+    @Override
+    public Page<Car> findPage(int afterId, int limit) throws SQLException {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Car> action) throws SQLException {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Map<Car, List<Passenger>> findAllWithPassengers() throws SQLException {
+        return delegate.findAllWithPassengers();
+    }
+
+    @Override
+    public List<Car> findByPassengerId(int passengerId) throws SQLException {
+        return delegate.findByPassengerId(passengerId);
+    }
+
+    @Override
+    public Map<Integer, List<Car>> findByPassengerIds(Collection<Integer> passengerIds) throws SQLException {
+        return delegate.findByPassengerIds(passengerIds);
+    }
+
+    @Override
+    public boolean existsByLicensePlate(String licensePlate) throws SQLException {
+        if (!index.isLoaded() || transactions.isActive()) {
+            return delegate.existsByLicensePlate(licensePlate);
+        }
+        if (!index.contains(licensePlate)) {
+            return false;
+        }
+        if (delegate.existsByLicensePlate(licensePlate)) {
+            return true;
+        }
+        removePlate(licensePlate);
+        return false;
+    }
+
+    @Override
+    public Set<String> findExistingLicensePlates(Collection<String> licensePlates) throws SQLException {
+        if (!index.isLoaded() || transactions.isActive()) {
+            return delegate.findExistingLicensePlates(licensePlates);
+        }
+        Set<String> candidates = new HashSet<>();
+        for (String licensePlate : licensePlates) {
+            if (index.contains(licensePlate)) {
+                candidates.add(licensePlate);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<String> existing = delegate.findExistingLicensePlates(candidates);
+        for (String licensePlate : candidates) {
+            if (!existing.contains(licensePlate)) {
+                removePlate(licensePlate);
+            }
+        }
+        return existing;
+    }
+
+    private void addPlate(String licensePlate) {
+        transactions.afterCommit(() -> index.add(licensePlate));
+    }
+
+    /**
+     * Outside a transaction the plate is removed straight away. A plate cleared just
+     * as another thread commits it only costs that plate's next check a trip to the
+     * unique constraint, which indexes it again.
+     */
+    private void removePlate(String licensePlate) {
+        transactions.afterCommit(() -> {
+            index.remove(licensePlate);
+            if (loading) {
+                removedWhileLoading.add(licensePlate);
+            }
+        });
+    }
+
+    private static boolean isConstraintViolation(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith(SQL_STATE_INTEGRITY_CONSTRAINT);
+    }
+}
@@ -0,0 +1,63 @@
+package dao.index;
+
+/**
+ * Maps every plate matching {@code LICENSE_PLATE_REGEX} ({@code NNNNLLL}) to a
+ * distinct int in {@code [0, CODE_SPACE)}, and back. 10^4 * 26^3 = 175,760,000
+ * codes fit in 28 bits.
+ */
+public final class LicensePlateCodec {
+
+    private static final int DIGITS = 4;
+    private static final int LETTERS = 3;
+    private static final int LETTER_COMBINATIONS = 26 * 26 * 26;
+
+    /** Number of distinct valid plates. */
+    public static final int CODE_SPACE = 10_000 * LETTER_COMBINATIONS;
+
+    /** Returned by {@link #encode(String)} for anything that is not a valid plate. */
+    public static final int INVALID = -1;
+
+    private LicensePlateCodec() {
+    }
+
+    public static int encode(String licensePlate) {
+        if (licensePlate == null || licensePlate.length() != DIGITS + LETTERS) {
+            return INVALID;
+        }
+        int number = 0;
+        for (int i = 0; i < DIGITS; i++) {
+            char c = licensePlate.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            number = number * 10 + (c - '0');
+        }
+        int letters = 0;
+        for (int i = DIGITS; i < DIGITS + LETTERS; i++) {
+            char c = licensePlate.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return INVALID;
+            }
+            letters = letters * 26 + (c - 'A');
+        }
+        return number * LETTER_COMBINATIONS + letters;
+    }
+
+    public static String decode(int code) {
+        if (code < 0 || code >= CODE_SPACE) {
+            throw new IllegalArgumentException(String.valueOf(code));
+        }
+        int number = code / LETTER_COMBINATIONS;
+        int letters = code % LETTER_COMBINATIONS;
+        char[] plate = new char[DIGITS + LETTERS];
+        for (int i = DIGITS - 1; i >= 0; i--) {
+            plate[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        for (int i = DIGITS + LETTERS - 1; i >= DIGITS; i--) {
+            plate[i] = (char) ('A' + letters % 26);
+            letters /= 26;
+        }
+        return new String(plate);
+    }
+}
@@ -0,0 +1,86 @@
+package dao.index;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Exact set of license plates in use: one bit per possible plate (about 22 MB),
+ * updated with lock-free compare-and-set. Plates that do not match the plate
+ * format (e.g. rows written before validation existed) are kept in a small side set.
+ */
+public final class PlateIndex {
+
+    private static final int WORDS = (LicensePlateCodec.CODE_SPACE + Long.SIZE - 1) / Long.SIZE;
+
+    private final AtomicLongArray bits = new AtomicLongArray(WORDS);
+    private final Set<String> irregular = ConcurrentHashMap.newKeySet();
+    private final AtomicLong size = new AtomicLong();
+    private volatile boolean loaded;
+
+    public boolean contains(String licensePlate) {
+        int code = LicensePlateCodec.encode(licensePlate);
+        if (code == LicensePlateCodec.INVALID) {
+            return licensePlate != null && irregular.contains(licensePlate);
+        }
+        return (bits.get(code >>> 6) & (1L << code)) != 0;
+    }
+
+    /**
+     * @return {@code true} if the plate was not in the index yet
+     */
+    public boolean add(String licensePlate) {
+        int code = LicensePlateCodec.encode(licensePlate);
+        boolean added;
+        if (code == LicensePlateCodec.INVALID) {
+            added = licensePlate != null && irregular.add(licensePlate);
+        } else {
+            long mask = 1L << code;
+            added = (bits.getAndAccumulate(code >>> 6, mask, (word, bit) -> word | bit) & mask) == 0;
+        }
+        if (added) {
+            size.incrementAndGet();
+        }
+        return added;
+    }
+
+    /**
+     * @return {@code true} if the plate was in the index
+     */
+    public boolean remove(String licensePlate) {
+        int code = LicensePlateCodec.encode(licensePlate);
+        boolean removed;
+        if (code == LicensePlateCodec.INVALID) {
+            removed = licensePlate != null && irregular.remove(licensePlate);
+        } else {
+            long mask = 1L << code;
+            removed = (bits.getAndAccumulate(code >>> 6, mask, (word, bit) -> word & ~bit) & mask) != 0;
+        }
+        if (removed) {
+            size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    /** True once a full load from the database has completed. */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    void markLoaded(boolean loaded) {
+        this.loaded = loaded;
+    }
+
+    void clear() {
+        for (int i = 0; i < WORDS; i++) {
+            bits.set(i, 0);
+        }
+        irregular.clear();
+        size.set(0);
+    }
+}
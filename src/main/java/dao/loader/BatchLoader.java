@@ -0,0 +1,166 @@
+package dao.loader;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import static config.SQLQueries.MAX_IN_PARAMETERS;
+import static utils.Constants.*;
+
+/**
+ * Merges concurrent single-id loads into batched ones. The first caller of a batch
+ * waits {@code window} for others to join and then runs one bulk fetch for all of
+ * them on its own thread; a caller that fills the batch to
+ * {@link config.SQLQueries#MAX_IN_PARAMETERS} ids runs it straight away. A caller
+ * asking for an id that is already queued waits for that load instead of queueing
+ * the id again; once a fetch has started, its ids are free to queue again, so no
+ * caller receives a value read before it asked. Every caller receives its own copy
+ * of the value.
+ */
+public final class BatchLoader<V> {
+
+    /**
+     * Loads the values of several ids at once; ids without a value are left out.
+     */
+    @FunctionalInterface
+    public interface BulkFetch<V> {
+        Map<Integer, V> fetch(Collection<Integer> ids) throws SQLException;
+    }
+
+    private final BulkFetch<V> fetch;
+    private final UnaryOperator<V> copy;
+    private final long windowNanos;
+    private final Map<Integer, CompletableFuture<Optional<V>>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private Batch<V> open;
+
+    public BatchLoader(BulkFetch<V> fetch, UnaryOperator<V> copy, Duration window) {
+        if (window == null || window.isNegative()) {
+            throw new IllegalArgumentException(ERROR_INVALID_LOADER_WINDOW);
+        }
+        this.fetch = Objects.requireNonNull(fetch);
+        this.copy = Objects.requireNonNull(copy);
+        this.windowNanos = window.toNanos();
+    }
+
+    public Optional<V> load(int id) throws SQLException {
+        requests.increment();
+        CompletableFuture<Optional<V>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> running = inFlight.putIfAbsent(id, future);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+
+        Batch<V> batch;
+        boolean first;
+        boolean full;
+        synchronized (lock) {
+            first = open == null;
+            if (first) {
+                open = new Batch<>();
+            }
+            batch = open;
+            batch.add(id, future);
+            full = batch.size() >= MAX_IN_PARAMETERS;
+            if (full) {
+                open = null;
+            }
+        }
+        if (first && !full && windowNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(windowNanos);
+            } catch (InterruptedException e) {
+                // Dispatch now; the flag stays set for the caller.
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (first || full) {
+            dispatch(batch);
+        }
+        return await(future);
+    }
+
+    public LoaderStats getStats() {
+        return new LoaderStats(requests.sum(), shared.sum(), batches.sum());
+    }
+
+    /**
+     * Runs {@code batch} unless another caller already has.
+     */
+    private void dispatch(Batch<V> batch) {
+        synchronized (lock) {
+            if (batch.dispatched) {
+                return;
+            }
+            batch.dispatched = true;
+            if (open == batch) {
+                open = null;
+            }
+            // Callers arriving from now on must not join a read that may miss their own writes.
+            for (int i = 0; i < batch.ids.size(); i++) {
+                inFlight.remove(batch.ids.get(i), batch.futures.get(i));
+            }
+        }
+        batches.increment();
+        try {
+            Map<Integer, V> values = fetch.fetch(batch.ids);
+            for (int i = 0; i < batch.ids.size(); i++) {
+                Integer id = batch.ids.get(i);
+                CompletableFuture<Optional<V>> future = batch.futures.get(i);
+                future.complete(Optional.ofNullable(values.get(id)));
+            }
+        } catch (SQLException | RuntimeException | Error e) {
+            for (CompletableFuture<Optional<V>> future : batch.futures) {
+                future.completeExceptionally(e);
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private Optional<V> await(CompletableFuture<Optional<V>> future) throws SQLException {
+        try {
+            return future.join().map(copy);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sql) {
+                throw new SQLException(sql.getMessage(), sql.getSQLState(), sql.getErrorCode(), sql);
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /** Ids collected for one bulk fetch, with the future of each. */
+    private static final class Batch<V> {
+        private final List<Integer> ids = new ArrayList<>();
+        private final List<CompletableFuture<Optional<V>>> futures = new ArrayList<>();
+        private boolean dispatched;
+
+        private void add(int id, CompletableFuture<Optional<V>> future) {
+            ids.add(id);
+            futures.add(future);
+        }
+
+        private int size() {
+            return ids.size();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package dao.loader;
+
+import dao.BatchResult;
+import dao.CarDAO;
+import dao.Page;
+import dao.SyncResult;
+import model.Car;
+import model.Passenger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static utils.Constants.*;
+
+/**
+ * {@link CarDAO} decorator whose {@link #findById(int)} goes through a
+ * {@link BatchLoader}: concurrent lookups become one {@link CarDAO#findByIds} call.
+ * Lookups for which {@code direct} is true skip the loader and run on the
+ * caller's own connection and routing session, e.g. inside a transaction or
+ * while a read-your-writes window requires the primary; a merged batch is read
+ * on the session of whichever caller dispatches it.
+ */
+public final class CoalescingCarDAO implements CarDAO {
+
+    private final CarDAO delegate;
+    private final BatchLoader<Car> loader;
+    private final BooleanSupplier direct;
+
+    public CoalescingCarDAO(CarDAO delegate, Duration window, BooleanSupplier direct) {
+        this.delegate = Objects.requireNonNull(delegate, ERROR_NULL_CAR_DAO);
+        this.loader = new BatchLoader<>(delegate::findByIds, Car::new, window);
+        this.direct = Objects.requireNonNull(direct);
+    }
+
+    public LoaderStats getStats() {
+        return loader.getStats();
+    }
+
+    @Override
+    public Car insert(Car car) throws SQLException {
+        return delegate.insert(car);
+    }
+
+    @Override
+    public BatchResult<Car> insertAll(Collection<Car> cars) throws SQLException {
+        return delegate.insertAll(cars);
+    }
+
+    @Override
+    public boolean update(Car car) throws SQLException {
+        return delegate.update(car);
+    }
+
+    @Override
+    public Optional<Car> updateReturningPrevious(Car car) throws SQLException {
+        return delegate.updateReturningPrevious(car);
+    }
+
+    @Override
+    public SyncResult upsertAll(Collection<Car> cars, boolean deleteMissing) throws SQLException {
+        return delegate.upsertAll(cars, deleteMissing);
+    }
+
+    @Override
+    public boolean delete(int id) throws SQLException {
+        return delegate.delete(id);
+    }
+
+    @Override
+    public Optional<Car> deleteReturningPrevious(int id) throws SQLException {
+        return delegate.deleteReturningPrevious(id);
+    }
+
+    @Override
+    public Optional<Car> findById(int id) throws SQLException {
+        return direct.getAsBoolean() ? delegate.findById(id) : loader.load(id);
+    }
+
+    @Override
+    public Map<Integer, Car> findByIds(Collection<Integer> ids) throws SQLException {
+        return delegate.findByIds(ids);
+    }
+
+    @Override
+    public List<Car> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Car> stream() throws SQLException {
+        return delegate.stream();
+    }
+
+    @Override
+    public Page<Car> findPage(int afterId, int limit) throws SQLException {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Car> action) throws SQLException {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Map<Car, List<Passenger>> findAllWithPassengers() throws SQLException {
+        return delegate.findAllWithPassengers();
+    }
+
+    @Override
+    public List<Car> findByPassengerId(int passengerId) throws SQLException {
+        return delegate.findByPassengerId(passengerId);
+    }
+
+    @Override
+    public Map<Integer, List<Car>> findByPassengerIds(Collection<Integer> passengerIds) throws SQLException {
+        return delegate.findByPassengerIds(passengerIds);
+    }
+
+    @Override
+    public boolean existsByLicensePlate(String licensePlate) throws SQLException {
+        return delegate.existsByLicensePlate(licensePlate);
+    }
+
+    @Override
+    public Set<String> findExistingLicensePlates(Collection<String> licensePlates) throws SQLException {
+        return delegate.findExistingLicensePlates(licensePlates);
+    }
+}
@@ -0,0 +1,136 @@
+package dao.loader;
+
+import dao.BatchResult;
+import dao.Page;
+import dao.PassengerDAO;
+import dao.SeatAssignment;
+import model.Passenger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static utils.Constants.*;
+
+/**
+ * {@link PassengerDAO} decorator whose {@link #findById(int)} goes through a
+ * {@link BatchLoader}, like {@link CoalescingCarDAO}.
+ */
+public final class CoalescingPassengerDAO implements PassengerDAO {
+
+    private final PassengerDAO delegate;
+    private final BatchLoader<Passenger> loader;
+    private final BooleanSupplier direct;
+
+    public CoalescingPassengerDAO(PassengerDAO delegate, Duration window, BooleanSupplier direct) {
+        this.delegate = Objects.requireNonNull(delegate, ERROR_NULL_PASSENGER_DAO);
+        this.loader = new BatchLoader<>(delegate::findByIds, Passenger::new, window);
+        this.direct = Objects.requireNonNull(direct);
+    }
+
+    public LoaderStats getStats() {
+        return loader.getStats();
+    }
+
+    @Override
+    public Passenger insert(Passenger passenger) throws SQLException {
+        return delegate.insert(passenger);
+    }
+
+    @Override
+    public BatchResult<Passenger> insertAll(Collection<Passenger> passengers) throws SQLException {
+        return delegate.insertAll(passengers);
+    }
+
+    @Override
+    public boolean update(Passenger passenger) throws SQLException {
+        return delegate.update(passenger);
+    }
+
+    @Override
+    public boolean delete(int id) throws SQLException {
+        return delegate.delete(id);
+    }
+
+    @Override
+    public Optional<Passenger> findById(int id) throws SQLException {
+        return direct.getAsBoolean() ? delegate.findById(id) : loader.load(id);
+    }
+
+    @Override
+    public Map<Integer, Passenger> findByIds(Collection<Integer> ids) throws SQLException {
+        return delegate.findByIds(ids);
+    }
+
+    @Override
+    public List<Passenger> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Passenger> stream() throws SQLException {
+        return delegate.stream();
+    }
+
+    @Override
+    public Page<Passenger> findPage(int afterId, int limit) throws SQLException {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Passenger> action) throws SQLException {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public boolean addToCar(int passengerId, int carId) throws SQLException {
+        return delegate.addToCar(passengerId, carId);
+    }
+
+    @Override
+    public SeatAssignment assignToCar(int passengerId, int carId, int capacity) throws SQLException {
+        return delegate.assignToCar(passengerId, carId, capacity);
+    }
+
+    @Override
+    public boolean removeFromCar(int passengerId, int carId) throws SQLException {
+        return delegate.removeFromCar(passengerId, carId);
+    }
+
+    @Override
+    public SeatAssignment assignAll(int carId, Collection<Integer> passengerIds, int capacity) throws SQLException {
+        return delegate.assignAll(carId, passengerIds, capacity);
+    }
+
+    @Override
+    public SeatAssignment moveAll(int fromCarId, int toCarId, int capacity) throws SQLException {
+        return delegate.moveAll(fromCarId, toCarId, capacity);
+    }
+
+    @Override
+    public int clearCar(int carId) throws SQLException {
+        return delegate.clearCar(carId);
+    }
+
+    @Override
+    public List<Passenger> findByCarId(int carId) throws SQLException {
+        return delegate.findByCarId(carId);
+    }
+
+    @Override
+    public boolean isInAnyCar(int passengerId) throws SQLException {
+        return delegate.isInAnyCar(passengerId);
+    }
+
+    @Override
+    public int getPassengerCountInCar(int carId) throws SQLException {
+        return delegate.getPassengerCountInCar(carId);
+    }
+}
@@ -0,0 +1,19 @@
+package dao.loader;
+
+/**
+ * Counters of a {@link BatchLoader}: single-id requests, requests that joined a load
+ * already in flight for the same id, and bulk fetches actually run.
+ */
+public record LoaderStats(long requests, long shared, long batches) {
+
+    /** Requests answered per bulk fetch; 0 before the first fetch. */
+    public double requestsPerBatch() {
+        return batches == 0 ? 0.0 : (double) requests / batches;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cargas{peticiones=%d, compartidas=%d, consultas=%d, peticiones/consulta=%.1f}",
+                requests, shared, batches, requestsPerBatch());
+    }
+}
@@ -0,0 +1,215 @@
+package dao.metrics;
+
+import dao.BatchResult;
+import dao.Page;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static utils.Constants.*;
+
+/**
+ * Per-method call counts, latency percentiles, error counts by SQLState and rows
+ * returned for any DAO interface.
+ * <pre>
+ * DaoMetrics metrics = new DaoMetrics();
+ * CarDAO carDAO = metrics.instrument(CarDAO.class, new CarDAOImpl());
+ * metrics.registerMBeans();
+ * </pre>
+ * Each call costs two {@code System.nanoTime()} reads and a few lock-free increments.
+ */
+public final class DaoMetrics implements AutoCloseable {
+
+    private final List<OperationMetrics> operations = new CopyOnWriteArrayList<>();
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+    private volatile ScheduledExecutorService reporter;
+
+    /**
+     * Wraps {@code target} so every method declared by {@code daoType} is measured.
+     */
+    public <T> T instrument(Class<T> daoType, T target) {
+        Objects.requireNonNull(target, ERROR_NULL_DAO_TARGET);
+        if (!daoType.isInterface()) {
+            throw new IllegalArgumentException(String.format(ERROR_NOT_AN_INTERFACE, daoType.getName()));
+        }
+
+        Map<Method, OperationMetrics> byMethod = new HashMap<>();
+        for (Method method : daoType.getMethods()) {
+            if (!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                OperationMetrics metrics = new OperationMetrics(daoType.getSimpleName(), method.getName());
+                byMethod.put(method, metrics);
+                operations.add(metrics);
+            }
+        }
+        return daoType.cast(Proxy.newProxyInstance(
+                daoType.getClassLoader(),
+                new Class<?>[]{daoType},
+                new Handler(target, byMethod)));
+    }
+
+    public List<OperationSnapshot> snapshot() {
+        List<OperationSnapshot> snapshots = new ArrayList<>(operations.size());
+        for (OperationMetrics metrics : operations) {
+            snapshots.add(metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Hands a fresh {@link #snapshot()} to {@code listener} every {@code period}
+     * from a daemon thread, until {@link #close()}.
+     */
+    public synchronized void startReporting(Duration period, Consumer<List<OperationSnapshot>> listener) {
+        Objects.requireNonNull(listener);
+        if (reporter != null) {
+            throw new IllegalStateException(ERROR_METRICS_REPORTER_RUNNING);
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, METRICS_REPORTER_THREAD);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = period.toMillis();
+        reporter.scheduleAtFixedRate(() -> {
+            try {
+                listener.accept(snapshot());
+            } catch (RuntimeException e) {
+                System.err.println(String.format(ERROR_METRICS_REPORT, e.getMessage()));
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes one MXBean per DAO method on the platform MBean server.
+     */
+    public void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (OperationMetrics metrics : operations) {
+            try {
+                ObjectName name = new ObjectName(String.format(METRICS_OBJECT_NAME,
+                        ObjectName.quote(metrics.dao()), ObjectName.quote(metrics.operation())));
+                if (registered.contains(name)) {
+                    continue;
+                }
+                server.registerMBean(metrics, name);
+                registered.add(name);
+            } catch (JMException e) {
+                System.err.println(String.format(ERROR_METRICS_JMX, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Stops reporting and removes the MBeans. Instrumented DAOs keep recording.
+     */
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                System.err.println(String.format(ERROR_METRICS_JMX, e.getMessage()));
+            }
+        }
+        registered.clear();
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final Object target;
+        private final Map<Method, OperationMetrics> byMethod;
+
+        private Handler(Object target, Map<Method, OperationMetrics> byMethod) {
+            this.target = target;
+            this.byMethod = byMethod;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            OperationMetrics metrics = byMethod.get(method);
+            if (metrics == null) {
+                return method.getName().equals("equals") ? proxy == args[0] : invokeTarget(method, args);
+            }
+
+            if (args != null) {
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i] instanceof Consumer<?> action) {
+                        args[i] = countingConsumer(action, metrics);
+                    }
+                }
+            }
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(method, args);
+            } catch (Throwable t) {
+                metrics.recordFailure(System.nanoTime() - start, t);
+                throw t;
+            }
+            metrics.recordSuccess(System.nanoTime() - start, rowsOf(result));
+            if (result instanceof Stream<?> stream) {
+                return stream.peek(row -> metrics.addRows(1));
+            }
+            return result;
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private static <T> Consumer<T> countingConsumer(Consumer<T> action, OperationMetrics metrics) {
+            return row -> {
+                metrics.addRows(1);
+                action.accept(row);
+            };
+        }
+
+        private static long rowsOf(Object result) {
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+            if (result instanceof Map<?, ?> map) {
+                return map.size();
+            }
+            if (result instanceof Optional<?> optional) {
+                return optional.isPresent() ? 1 : 0;
+            }
+            if (result instanceof Page<?> page) {
+                return page.items().size();
+            }
+            if (result instanceof BatchResult<?> batch) {
+                return batch.getInserted().size();
+            }
+            return 0;
+        }
+    }
+}
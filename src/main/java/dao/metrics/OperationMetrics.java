@@ -0,0 +1,114 @@
+package dao.metrics;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram of one DAO method.
+ */
+final class OperationMetrics implements OperationMetricsMXBean {
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final String UNKNOWN_SQL_STATE = "desconocido";
+
+    private final String dao;
+    private final String operation;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final Map<String, LongAdder> errorsBySqlState = new ConcurrentHashMap<>();
+
+    OperationMetrics(String dao, String operation) {
+        this.dao = dao;
+        this.operation = operation;
+    }
+
+    String dao() {
+        return dao;
+    }
+
+    String operation() {
+        return operation;
+    }
+
+    void recordSuccess(long nanos, long rowCount) {
+        latency.record(nanos);
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+    }
+
+    void recordFailure(long nanos, Throwable error) {
+        latency.record(nanos);
+        errors.increment();
+        errorsBySqlState.computeIfAbsent(sqlStateOf(error), state -> new LongAdder()).increment();
+    }
+
+    void addRows(long rowCount) {
+        rows.add(rowCount);
+    }
+
+    OperationSnapshot snapshot() {
+        long[] percentiles = latency.percentiles(QUANTILES);
+        return new OperationSnapshot(dao, operation, latency.count(), errors.sum(), rows.sum(),
+                latency.mean(), percentiles[0], percentiles[1], percentiles[2], latency.max(),
+                getErrorsBySqlState());
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.count();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.mean() / 1_000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.percentiles(0.5)[0] / 1_000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.percentiles(0.99)[0] / 1_000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.percentiles(0.999)[0] / 1_000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.max() / 1_000.0;
+    }
+
+    @Override
+    public Map<String, Long> getErrorsBySqlState() {
+        Map<String, Long> counts = new TreeMap<>();
+        errorsBySqlState.forEach((state, count) -> counts.put(state, count.sum()));
+        return counts;
+    }
+
+    private static String sqlStateOf(Throwable error) {
+        if (error instanceof SQLException sqlException) {
+            return sqlException.getSQLState() != null ? sqlException.getSQLState() : UNKNOWN_SQL_STATE;
+        }
+        return error.getClass().getSimpleName();
+    }
+}
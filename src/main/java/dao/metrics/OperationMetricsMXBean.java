@@ -0,0 +1,28 @@
+package dao.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of one DAO method, registered as
+ * {@code dealership:type=DaoMetrics,dao=<interface>,operation=<method>}.
+ */
+public interface OperationMetricsMXBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    Map<String, Long> getErrorsBySqlState();
+}
@@ -0,0 +1,26 @@
+package dao.metrics;
+
+import java.util.Map;
+
+/**
+ * Cumulative figures of one DAO method at a point in time. Latencies are in nanoseconds.
+ */
+public record OperationSnapshot(String dao,
+                                String operation,
+                                long calls,
+                                long errors,
+                                long rows,
+                                double meanNanos,
+                                long p50Nanos,
+                                long p99Nanos,
+                                long p999Nanos,
+                                long maxNanos,
+                                Map<String, Long> errorsBySqlState) {
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s{llamadas=%d, errores=%d, filas=%d, p50=%.1fµs, p99=%.1fµs, p999=%.1fµs, max=%.1fµs}",
+                dao, operation, calls, errors, rows,
+                p50Nanos / 1_000.0, p99Nanos / 1_000.0, p999Nanos / 1_000.0, maxNanos / 1_000.0);
+    }
+}
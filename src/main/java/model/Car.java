@@ -12,6 +12,8 @@ public class Car {
     private String brand;
     private String model;
     private String color;
+    /** Row version for optimistic updates; bumped by every successful update. */
+    private int version;
 
     public Car() {
     }
@@ -23,10 +25,26 @@ public class Car {
         setColor(color);
     }
 
+    /**
+     * Copy constructor, used where a detached snapshot of the car is needed.
+     */
+    public Car(Car other) {
+        this.id = other.id;
+        this.licensePlate = other.licensePlate;
+        this.brand = other.brand;
+        this.model = other.model;
+        this.color = other.color;
+        this.version = other.version;
+    }
+
     public void setId(Integer id) {
         this.id = Objects.requireNonNull(id, ERROR_NULL_ID);
     }
 
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public void setLicensePlate(String licensePlate) {
         this.licensePlate = Objects.requireNonNull(licensePlate, ERROR_NULL_LICENSE)
                 .toUpperCase().trim();
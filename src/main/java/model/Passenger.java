@@ -15,6 +15,9 @@ public class Passenger {
     private String name;
     private int age;
     private double weight;
+    /** Row version for optimistic updates; bumped by every successful update. */
+    @Setter
+    private int version;
 
     public Passenger() {
     }
@@ -25,6 +28,17 @@ public class Passenger {
         setWeight(weight);
     }
 
+    /**
+     * Copy constructor, used where a detached snapshot of the passenger is needed.
+     */
+    public Passenger(Passenger other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.age = other.age;
+        this.weight = other.weight;
+        this.version = other.version;
+    }
+
     public void setName(String name) {
         if (name == null) {
             throw new IllegalArgumentException(ERROR_NULL_NAME);
@@ -0,0 +1,67 @@
+package service;
+
+import dao.BatchResult;
+import dao.Page;
+import model.Car;
+import model.Passenger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static utils.Constants.*;
+
+/**
+ * Non-blocking facade over {@link CarService}. Every call runs on its own virtual
+ * thread through the shared {@link ServiceExecutor}; the future completes with the
+ * same result or exception the synchronous call would produce.
+ */
+public final class AsyncCarService {
+
+    private final CarService carService;
+    private final ServiceExecutor executor;
+
+    public AsyncCarService(CarService carService, ServiceExecutor executor) {
+        this.carService = Objects.requireNonNull(carService, ERROR_NULL_SERVICE);
+        this.executor = Objects.requireNonNull(executor, ERROR_NULL_EXECUTOR);
+    }
+
+    public CompletableFuture<Car> add(Car car) {
+        return executor.submit(() -> carService.add(car));
+    }
+
+    public CompletableFuture<BatchResult<Car>> addAll(Collection<Car> cars) {
+        return executor.submit(() -> carService.addAll(cars));
+    }
+
+    public CompletableFuture<Boolean> update(Car car) {
+        return executor.submit(() -> carService.update(car));
+    }
+
+    public CompletableFuture<Boolean> deleteById(Integer id) {
+        return executor.submit(() -> carService.deleteById(id));
+    }
+
+    public CompletableFuture<Optional<Car>> findById(Integer id) {
+        return executor.submit(() -> carService.findById(id));
+    }
+
+    public CompletableFuture<Map<Integer, Car>> findByIds(Collection<Integer> ids) {
+        return executor.submit(() -> carService.findByIds(ids));
+    }
+
+    public CompletableFuture<List<Car>> findAll() {
+        return executor.submit(carService::findAll);
+    }
+
+    public CompletableFuture<Page<Car>> findPage(int afterId, int limit) {
+        return executor.submit(() -> carService.findPage(afterId, limit));
+    }
+
+    public CompletableFuture<Map<Car, List<Passenger>>> findAllWithPassengers() {
+        return executor.submit(carService::findAllWithPassengers);
+    }
+}
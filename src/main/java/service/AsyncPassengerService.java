@@ -0,0 +1,93 @@
+package service;
+
+import dao.BatchResult;
+import dao.Page;
+import model.Car;
+import model.Passenger;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static utils.Constants.*;
+
+/**
+ * Non-blocking facade over {@link PassengerService}, see {@link AsyncCarService}.
+ */
+public final class AsyncPassengerService {
+
+    private final PassengerService passengerService;
+    private final ServiceExecutor executor;
+
+    public AsyncPassengerService(PassengerService passengerService, ServiceExecutor executor) {
+        this.passengerService = Objects.requireNonNull(passengerService, ERROR_NULL_SERVICE);
+        this.executor = Objects.requireNonNull(executor, ERROR_NULL_EXECUTOR);
+    }
+
+    public CompletableFuture<Passenger> add(Passenger passenger) {
+        return executor.submit(() -> passengerService.add(passenger));
+    }
+
+    public CompletableFuture<BatchResult<Passenger>> addAll(Collection<Passenger> passengers) {
+        return executor.submit(() -> passengerService.addAll(passengers));
+    }
+
+    public CompletableFuture<Boolean> update(Passenger passenger) {
+        return executor.submit(() -> passengerService.update(passenger));
+    }
+
+    public CompletableFuture<Boolean> deleteById(Integer id) {
+        return executor.submit(() -> passengerService.deleteById(id));
+    }
+
+    public CompletableFuture<Optional<Passenger>> findById(Integer id) {
+        return executor.submit(() -> passengerService.findById(id));
+    }
+
+    public CompletableFuture<Map<Integer, Passenger>> findByIds(Collection<Integer> ids) {
+        return executor.submit(() -> passengerService.findByIds(ids));
+    }
+
+    public CompletableFuture<List<Passenger>> findAll() {
+        return executor.submit(passengerService::findAll);
+    }
+
+    public CompletableFuture<Page<Passenger>> findPage(int afterId, int limit) {
+        return executor.submit(() -> passengerService.findPage(afterId, limit));
+    }
+
+    public CompletableFuture<Void> addPassengerToCar(int passengerId, int carId) {
+        return executor.run(() -> passengerService.addPassengerToCar(passengerId, carId));
+    }
+
+    public CompletableFuture<Void> removePassengerFromCar(int passengerId, int carId) {
+        return executor.run(() -> passengerService.removePassengerFromCar(passengerId, carId));
+    }
+
+    public CompletableFuture<Void> assignAll(int carId, Collection<Integer> passengerIds) {
+        return executor.run(() -> passengerService.assignAll(carId, passengerIds));
+    }
+
+    public CompletableFuture<Void> moveAll(int fromCarId, int toCarId) {
+        return executor.run(() -> passengerService.moveAll(fromCarId, toCarId));
+    }
+
+    public CompletableFuture<Integer> clearCar(int carId) {
+        return executor.submit(() -> passengerService.clearCar(carId));
+    }
+
+    public CompletableFuture<List<Passenger>> findPassengersByCarId(int carId) {
+        return executor.submit(() -> passengerService.findPassengersByCarId(carId));
+    }
+
+    public CompletableFuture<List<Car>> findCarsByPassengerId(Integer passengerId) {
+        return executor.submit(() -> passengerService.findCarsByPassengerId(passengerId));
+    }
+
+    public CompletableFuture<Map<Integer, List<Car>>> findCarsByPassengerIds(Collection<Integer> passengerIds) {
+        return executor.submit(() -> passengerService.findCarsByPassengerIds(passengerIds));
+    }
+}
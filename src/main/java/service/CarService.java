@@ -1,19 +1,33 @@
 package service;
 
+import dao.BatchResult;
 import dao.CarDAO;
+import dao.Page;
+import dao.SyncResult;
 import model.Car;
+import model.Passenger;
 import utils.DealershipExceptions.*;
 
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static utils.Constants.*;
 
 public final class CarService {
 
     private final CarDAO carDAO;
+    private final UnitOfWork.BatchWriter<Car> queuedInserts = this::insertQueued;
 
     public CarService(CarDAO carDAO) {
         this.carDAO = Objects.requireNonNull(carDAO, ERROR_NULL_DAO);
@@ -31,23 +45,102 @@ public final class CarService {
         }
     }
 
+    /**
+     * Validates every car, checks all license plates against the database in one
+     * query and inserts the accepted ones in batches. Rejected rows are reported
+     * in the result instead of aborting the whole load.
+     */
+    public BatchResult<Car> addAll(Collection<Car> cars) {
+        if (cars == null) {
+            throw new ValidationException(ERROR_NULL_COLLECTION);
+        }
+
+        BatchResult<Car> result = new BatchResult<>();
+        Map<String, Car> candidates = new LinkedHashMap<>();
+        for (Car car : cars) {
+            try {
+                validateCarForInsert(car);
+            } catch (ValidationException e) {
+                result.addFailure(car, e.getMessage());
+                continue;
+            }
+            if (candidates.putIfAbsent(car.getLicensePlate(), car) != null) {
+                result.addFailure(car, String.format(ERROR_DUPLICATE_IN_BATCH, car.getLicensePlate()));
+            }
+        }
+
+        try {
+            Set<String> existing = carDAO.findExistingLicensePlates(candidates.keySet());
+            List<Car> toInsert = new ArrayList<>(candidates.size());
+            for (Car car : candidates.values()) {
+                if (existing.contains(car.getLicensePlate())) {
+                    result.addFailure(car, String.format(ERROR_DUPLICATE_LICENSE, car.getLicensePlate()));
+                } else {
+                    toInsert.add(car);
+                }
+            }
+            return result.merge(carDAO.insertAll(toInsert));
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_ADD, ENTITY_CAR), e);
+        }
+    }
+
+    /**
+     * Validates {@code car} and queues its insert in {@code unit}; the queued cars are
+     * inserted together, as by {@link #addAll}, when the unit of work is flushed. Any
+     * rejected car fails the flush, which rolls back the whole transaction.
+     */
+    public void addLater(UnitOfWork unit, Car car) {
+        validateCarForInsert(car);
+        unit.queue(queuedInserts, car);
+    }
+
     public boolean update(Car car) {
         validateCarForUpdate(car);
 
         try {
-            Optional<Car> existingCar = carDAO.findById(car.getId());
-            if (existingCar.isEmpty()) {
+            if (carDAO.update(car)) {
+                return true;
+            }
+            // Nothing updated: only now pay for finding out why.
+            if (carDAO.findById(car.getId()).isEmpty()) {
                 throw new EntityNotFoundException(ENTITY_CAR, FIELD_ID, car.getId());
             }
+            throw new ConcurrentUpdateException(ENTITY_CAR, car.getId(), car.getVersion());
+        } catch (SQLException e) {
+            if (isConstraintViolation(e)) {
+                // The only constraint an update can break is the unique license plate.
+                throw new DuplicateKeyException(FIELD_LICENSE_PLATE, car.getLicensePlate(),
+                        String.format(ERROR_DUPLICATE_LICENSE, car.getLicensePlate()));
+            }
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_UPDATE, ENTITY_CAR), e);
+        }
+    }
 
-            if (!existingCar.get().getLicensePlate().equals(car.getLicensePlate())) {
-                checkLicensePlateUniqueness(car.getLicensePlate());
+    /**
+     * Applies a full car feed: validates every row first and rejects the whole feed
+     * if any row is invalid or repeats a license plate, since with {@code deleteMissing}
+     * a dropped row would delete its car. Then hands it to {@link CarDAO#upsertAll}.
+     */
+    public SyncResult sync(Collection<Car> feed, boolean deleteMissing) {
+        if (feed == null) {
+            throw new ValidationException(ERROR_NULL_COLLECTION);
+        }
+        Set<String> plates = new HashSet<>();
+        for (Car car : feed) {
+            validateCarForInsert(car);
+            if (!plates.add(car.getLicensePlate())) {
+                throw new ValidationException(String.format(ERROR_DUPLICATE_IN_BATCH, car.getLicensePlate()));
             }
+        }
 
-            return carDAO.update(car);
+        try {
+            return carDAO.upsertAll(feed, deleteMissing);
         } catch (SQLException e) {
             throw new DatabaseException(
-                    String.format(ERROR_DATABASE, OPERATION_UPDATE, ENTITY_CAR), e);
+                    String.format(ERROR_DATABASE, OPERATION_SYNC, ENTITY_CAR), e);
         }
     }
 
@@ -73,6 +166,23 @@ public final class CarService {
         }
     }
 
+    /**
+     * Cars with the given ids, keyed by id; ids that do not exist are absent.
+     */
+    public Map<Integer, Car> findByIds(Collection<Integer> ids) {
+        if (ids == null) {
+            throw new ValidationException(ERROR_NULL_COLLECTION);
+        }
+        ids.forEach(this::validateId);
+
+        try {
+            return carDAO.findByIds(ids);
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_FIND, ENTITY_CAR), e);
+        }
+    }
+
     public List<Car> findAll() {
         try {
             return carDAO.findAll();
@@ -82,6 +192,60 @@ public final class CarService {
         }
     }
 
+    /**
+     * Streams every car without loading the table into memory.
+     * The stream must be closed, preferably with try-with-resources.
+     */
+    public Stream<Car> stream() {
+        try {
+            return carDAO.stream();
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_CAR), e);
+        }
+    }
+
+    /**
+     * Page of cars after {@code afterId} (0 for the first page). Each page
+     * costs one indexed range scan, however deep into the table it is.
+     */
+    public Page<Car> findPage(int afterId, int limit) {
+        validatePageRequest(afterId, limit);
+
+        try {
+            return carDAO.findPage(afterId, limit);
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_CAR), e);
+        }
+    }
+
+    public void forEach(Consumer<? super Car> action) {
+        Objects.requireNonNull(action);
+        try {
+            carDAO.forEach(action);
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_CAR), e);
+        }
+    }
+
+    public Map<Car, List<Passenger>> findAllWithPassengers() {
+        try {
+            return carDAO.findAllWithPassengers();
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_CAR), e);
+        }
+    }
+
+    private void insertQueued(List<Car> cars) {
+        BatchResult<Car> result = addAll(cars);
+        if (result.hasFailures()) {
+            throw new ValidationException(result.getFailures().get(0).reason());
+        }
+    }
+
     private void validateCarForInsert(Car car) {
         if (car == null) {
             throw new ValidationException(ERROR_NULL_CAR);
@@ -112,6 +276,15 @@ public final class CarService {
         }
     }
 
+    private void validatePageRequest(int afterId, int limit) {
+        if (afterId < 0) {
+            throw new ValidationException(ERROR_INVALID_PAGE_TOKEN);
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format(ERROR_INVALID_PAGE_SIZE, MAX_PAGE_SIZE));
+        }
+    }
+
     private void validateId(Integer id) {
         if (id == null) {
             throw new ValidationException(String.format(ERROR_NULL_FIELD, FIELD_ID));
@@ -121,6 +294,11 @@ public final class CarService {
         }
     }
 
+    private static boolean isConstraintViolation(SQLException e) {
+        return e instanceof SQLIntegrityConstraintViolationException
+                || (e.getSQLState() != null && e.getSQLState().startsWith(SQL_STATE_INTEGRITY_CONSTRAINT));
+    }
+
     private void checkLicensePlateUniqueness(String licensePlate) throws SQLException {
         if (carDAO.existsByLicensePlate(licensePlate)) {
             throw new DuplicateKeyException(FIELD_LICENSE_PLATE, licensePlate,
@@ -1,18 +1,30 @@
 package service;
 
+import dao.BatchResult;
 import dao.PassengerDAO;
+import dao.Page;
 import dao.CarDAO;
+import dao.SeatAssignment;
+import model.Car;
 import model.Passenger;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import utils.DealershipExceptions.*;
 import static utils.Constants.*;
 
 public final class PassengerService {
     private final PassengerDAO passengerDAO;
     private final CarDAO carDAO;
+    private final UnitOfWork.BatchWriter<Passenger> queuedInserts = this::insertQueued;
 
     public PassengerService(PassengerDAO passengerDAO, CarDAO carDAO) {
         this.passengerDAO = Objects.requireNonNull(passengerDAO, ERROR_NULL_PASSENGER_DAO);
@@ -30,26 +42,73 @@ public final class PassengerService {
         }
     }
 
+    /**
+     * Validates every passenger and inserts the valid ones in batches.
+     * Rejected rows are reported in the result instead of aborting the whole load.
+     */
+    public BatchResult<Passenger> addAll(Collection<Passenger> passengers) {
+        if (passengers == null) {
+            throw new ValidationException(ERROR_NULL_COLLECTION);
+        }
+
+        BatchResult<Passenger> result = new BatchResult<>();
+        List<Passenger> toInsert = new ArrayList<>(passengers.size());
+        for (Passenger passenger : passengers) {
+            try {
+                validatePassengerForInsert(passenger);
+                toInsert.add(passenger);
+            } catch (ValidationException e) {
+                result.addFailure(passenger, e.getMessage());
+            }
+        }
+
+        try {
+            return result.merge(passengerDAO.insertAll(toInsert));
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_ADD, ENTITY_PASSENGER), e);
+        }
+    }
+
+    /**
+     * Validates {@code passenger} and queues its insert in {@code unit}; the queued
+     * passengers are inserted in batches when the unit of work is flushed. Any
+     * rejected passenger fails the flush, which rolls back the whole transaction.
+     */
+    public void addLater(UnitOfWork unit, Passenger passenger) {
+        validatePassengerForInsert(passenger);
+        unit.queue(queuedInserts, passenger);
+    }
+
     public boolean update(Passenger passenger) {
         validatePassengerForUpdate(passenger);
 
         try {
-            Optional<Passenger> existing = passengerDAO.findById(passenger.getId());
-            if (existing.isEmpty()) {
+            if (passengerDAO.update(passenger)) {
+                return true;
+            }
+            // Nothing updated: only now pay for finding out why.
+            if (passengerDAO.findById(passenger.getId()).isEmpty()) {
                 throw new EntityNotFoundException(ENTITY_PASSENGER, FIELD_ID, passenger.getId());
             }
-
-            return passengerDAO.update(passenger);
+            throw new ConcurrentUpdateException(ENTITY_PASSENGER, passenger.getId(), passenger.getVersion());
         } catch (SQLException e) {
             throw new DatabaseException(
                     String.format(ERROR_DATABASE, OPERATION_UPDATE, ENTITY_PASSENGER), e);
         }
     }
 
+    /**
+     * Deletes a passenger that is not seated in any car; the check stops at the
+     * first assignment found.
+     */
     public boolean deleteById(Integer id) {
         validateId(id);
 
         try {
+            if (passengerDAO.isInAnyCar(id)) {
+                throw new BusinessRuleException(String.format(ERROR_PASSENGER_IN_CAR, id));
+            }
             return passengerDAO.delete(id);
         } catch (SQLException e) {
             throw new DatabaseException(
@@ -68,6 +127,23 @@ public final class PassengerService {
         }
     }
 
+    /**
+     * Passengers with the given ids, keyed by id; ids that do not exist are absent.
+     */
+    public Map<Integer, Passenger> findByIds(Collection<Integer> ids) {
+        if (ids == null) {
+            throw new ValidationException(ERROR_NULL_COLLECTION);
+        }
+        ids.forEach(this::validateId);
+
+        try {
+            return passengerDAO.findByIds(ids);
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_FIND, ENTITY_PASSENGER), e);
+        }
+    }
+
     public List<Passenger> findAll() {
         try {
             return passengerDAO.findAll();
@@ -77,14 +153,61 @@ public final class PassengerService {
         }
     }
 
-    public void addPassengerToCar(int passengerId, int carId) {
+    /**
+     * Streams every passenger without loading the table into memory.
+     * The stream must be closed, preferably with try-with-resources.
+     */
+    public Stream<Passenger> stream() {
         try {
-            validatePassengerAndCarExist(passengerId, carId);
-            validateCarCapacity(carId);
+            return passengerDAO.stream();
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_PASSENGER), e);
+        }
+    }
 
-            if (!passengerDAO.addToCar(passengerId, carId)) {
-                throw new DatabaseException(
-                        String.format(ERROR_ADD_TO_CAR, passengerId, carId), null);
+    /**
+     * Page of passengers after {@code afterId} (0 for the first page). Each page
+     * costs one indexed range scan, however deep into the table it is.
+     */
+    public Page<Passenger> findPage(int afterId, int limit) {
+        validatePageRequest(afterId, limit);
+
+        try {
+            return passengerDAO.findPage(afterId, limit);
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_PASSENGER), e);
+        }
+    }
+
+    public void forEach(Consumer<? super Passenger> action) {
+        Objects.requireNonNull(action);
+        try {
+            passengerDAO.forEach(action);
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_PASSENGER), e);
+        }
+    }
+
+    /**
+     * Seats a passenger in a car. Existence, capacity and the insert are checked
+     * atomically by the DAO, so concurrent calls can never exceed
+     * {@code MAX_PASSENGERS_PER_CAR}.
+     */
+    public void addPassengerToCar(int passengerId, int carId) {
+        try {
+            SeatAssignment result = passengerDAO.assignToCar(passengerId, carId, MAX_PASSENGERS_PER_CAR);
+            switch (result) {
+                case ASSIGNED -> {
+                }
+                case PASSENGER_NOT_FOUND -> throw new EntityNotFoundException(ENTITY_PASSENGER, FIELD_ID, passengerId);
+                case CAR_NOT_FOUND -> throw new EntityNotFoundException(ENTITY_CAR, FIELD_ID, carId);
+                case CAR_FULL -> throw new BusinessRuleException(
+                        String.format(ERROR_MAX_CAPACITY, carId, MAX_PASSENGERS_PER_CAR));
+                case ALREADY_ASSIGNED -> throw new BusinessRuleException(
+                        String.format(ERROR_ALREADY_IN_CAR, passengerId, carId));
             }
         } catch (SQLException e) {
             throw new DatabaseException(
@@ -106,6 +229,95 @@ public final class PassengerService {
         }
     }
 
+    /**
+     * Seats a group of passengers in a car, all or none: the DAO checks the capacity
+     * once for the whole group and inserts the assignments with one statement.
+     */
+    public void assignAll(int carId, Collection<Integer> passengerIds) {
+        validateId(carId);
+        if (passengerIds == null) {
+            throw new ValidationException(ERROR_NULL_COLLECTION);
+        }
+        passengerIds.forEach(this::validateId);
+
+        try {
+            SeatAssignment result = passengerDAO.assignAll(carId, passengerIds, MAX_PASSENGERS_PER_CAR);
+            switch (result) {
+                case ASSIGNED -> {
+                }
+                case CAR_NOT_FOUND -> throw new EntityNotFoundException(ENTITY_CAR, FIELD_ID, carId);
+                case CAR_FULL -> throw new BusinessRuleException(
+                        String.format(ERROR_MAX_CAPACITY, carId, MAX_PASSENGERS_PER_CAR));
+                // Only a failed call pays for finding out which passenger caused it.
+                case PASSENGER_NOT_FOUND -> {
+                    Map<Integer, Passenger> found = passengerDAO.findByIds(passengerIds);
+                    int missing = passengerIds.stream().filter(id -> !found.containsKey(id)).findFirst().orElse(0);
+                    throw new EntityNotFoundException(ENTITY_PASSENGER, FIELD_ID, missing);
+                }
+                case ALREADY_ASSIGNED -> throw new BusinessRuleException(String.format(ERROR_ALREADY_IN_CAR,
+                        firstSeatedIn(carId, passengerIds), carId));
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_ADD_TO_CAR, ENTITY_PASSENGER), e);
+        }
+    }
+
+    /**
+     * Moves every passenger of one car to another in one transaction, provided they
+     * all fit in the target car.
+     */
+    public void moveAll(int fromCarId, int toCarId) {
+        validateId(fromCarId);
+        validateId(toCarId);
+        if (fromCarId == toCarId) {
+            throw new ValidationException(ERROR_SAME_CAR);
+        }
+
+        try {
+            SeatAssignment result = passengerDAO.moveAll(fromCarId, toCarId, MAX_PASSENGERS_PER_CAR);
+            switch (result) {
+                case ASSIGNED -> {
+                }
+                case CAR_NOT_FOUND -> {
+                    validateCarExists(fromCarId);
+                    throw new EntityNotFoundException(ENTITY_CAR, FIELD_ID, toCarId);
+                }
+                case CAR_FULL -> throw new BusinessRuleException(
+                        String.format(ERROR_MAX_CAPACITY, toCarId, MAX_PASSENGERS_PER_CAR));
+                case ALREADY_ASSIGNED -> {
+                    List<Integer> moving = passengerDAO.findByCarId(fromCarId).stream()
+                            .map(Passenger::getId)
+                            .toList();
+                    throw new BusinessRuleException(String.format(ERROR_ALREADY_IN_CAR,
+                            firstSeatedIn(toCarId, moving), toCarId));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_MOVE_BETWEEN_CARS, ENTITY_PASSENGER), e);
+        }
+    }
+
+    /**
+     * Removes every passenger from a car.
+     *
+     * @return the number of passengers removed
+     */
+    public int clearCar(int carId) {
+        validateId(carId);
+        try {
+            int removed = passengerDAO.clearCar(carId);
+            if (removed == 0) {
+                validateCarExists(carId);
+            }
+            return removed;
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_CLEAR_CAR, ENTITY_PASSENGER), e);
+        }
+    }
+
     public List<Passenger> findPassengersByCarId(int carId) throws SQLException {
         validateCarExists(carId);
 
@@ -117,6 +329,43 @@ public final class PassengerService {
         }
     }
 
+    public List<Car> findCarsByPassengerId(Integer passengerId) {
+        validateId(passengerId);
+
+        try {
+            validatePassengerExists(passengerId);
+            return carDAO.findByPassengerId(passengerId);
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_CAR), e);
+        }
+    }
+
+    /**
+     * Cars of each passenger, keyed by passenger id, in one query per 1000 ids;
+     * passengers without a car are absent.
+     */
+    public Map<Integer, List<Car>> findCarsByPassengerIds(Collection<Integer> passengerIds) {
+        if (passengerIds == null) {
+            throw new ValidationException(ERROR_NULL_COLLECTION);
+        }
+        passengerIds.forEach(this::validateId);
+
+        try {
+            return carDAO.findByPassengerIds(passengerIds);
+        } catch (SQLException e) {
+            throw new DatabaseException(
+                    String.format(ERROR_DATABASE, OPERATION_LIST, ENTITY_CAR), e);
+        }
+    }
+
+    private void insertQueued(List<Passenger> passengers) {
+        BatchResult<Passenger> result = addAll(passengers);
+        if (result.hasFailures()) {
+            throw new ValidationException(result.getFailures().get(0).reason());
+        }
+    }
+
     private void validatePassengerForInsert(Passenger passenger) {
         if (passenger == null) {
             throw new ValidationException(ERROR_NULL_PASSENGER);
@@ -141,6 +390,15 @@ public final class PassengerService {
         }
     }
 
+    private void validatePageRequest(int afterId, int limit) {
+        if (afterId < 0) {
+            throw new ValidationException(ERROR_INVALID_PAGE_TOKEN);
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format(ERROR_INVALID_PAGE_SIZE, MAX_PAGE_SIZE));
+        }
+    }
+
     private void validateId(Integer id) {
         if (id == null) {
             throw new ValidationException(String.format(ERROR_NULL_FIELD, FIELD_ID));
@@ -161,6 +419,14 @@ public final class PassengerService {
         }
     }
 
+    /** First of {@code passengerIds} already seated in the car; 0 if none is any more. */
+    private int firstSeatedIn(int carId, Collection<Integer> passengerIds) throws SQLException {
+        Set<Integer> seated = passengerDAO.findByCarId(carId).stream()
+                .map(Passenger::getId)
+                .collect(Collectors.toSet());
+        return passengerIds.stream().filter(seated::contains).findFirst().orElse(0);
+    }
+
     private void validateCarExists(int carId) throws SQLException {
         if (carDAO.findById(carId).isEmpty()) {
             throw new EntityNotFoundException(ENTITY_CAR, FIELD_ID, carId);
@@ -172,12 +438,4 @@ public final class PassengerService {
             super(message);
         }
     }
-
-    private void validateCarCapacity(int carId) throws SQLException {
-        int currentPassengers = passengerDAO.getPassengerCountInCar(carId);
-        if (currentPassengers >= MAX_PASSENGERS_PER_CAR) {
-            throw new BusinessRuleException(
-                    String.format(ERROR_MAX_CAPACITY, carId, MAX_PASSENGERS_PER_CAR));
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package service;
+
+import config.DatabaseConnection;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static utils.Constants.*;
+
+/**
+ * Runs service calls on one virtual thread per call.
+ * <p>
+ * At most {@code maxConcurrency} calls touch the database at once. Size it to the
+ * pool's maximum so waiting callers park on a cheap semaphore instead of queueing in
+ * the pool and hitting its borrow timeout. Calls beyond {@code maxPending}
+ * (running plus waiting) are rejected straight away with a
+ * {@link RejectedExecutionException} instead of piling up without limit.
+ * Each call runs in the submitting thread's read-your-writes session.
+ */
+public final class ServiceExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean closed;
+
+    public ServiceExecutor(int maxConcurrency) {
+        this(maxConcurrency, ASYNC_MAX_PENDING);
+    }
+
+    public ServiceExecutor(int maxConcurrency, int maxPending) {
+        if (maxConcurrency <= 0 || maxPending < maxConcurrency) {
+            throw new IllegalArgumentException(ERROR_INVALID_ASYNC_CONFIG);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.maxPending = maxPending;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(ASYNC_THREAD_PREFIX, 0).factory());
+    }
+
+    /**
+     * Schedules {@code call}. The future completes with its result or with whatever
+     * it threw. Cancelling the future before the call starts skips it.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> call) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(ERROR_ASYNC_CLOSED));
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException(String.format(ERROR_ASYNC_SATURATED, maxPending)));
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Callable<T> task = DatabaseConnection.inCallerSession(call);
+        try {
+            executor.execute(() -> run(task, future));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public CompletableFuture<Void> run(Runnable call) {
+        return submit(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /** Calls currently holding a permit. */
+    public int getActiveCalls() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /** Calls accepted and not yet finished, running or waiting for a permit. */
+    public int getPendingCalls() {
+        return pending.get();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Stops accepting calls and waits for the accepted ones to finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.close();
+    }
+
+    private <T> void run(Callable<T> call, CompletableFuture<T> future) {
+        T result = null;
+        Throwable failure = null;
+        try {
+            permits.acquire();
+            try {
+                if (!future.isDone()) {
+                    result = call.call();
+                }
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        } catch (Throwable t) {
+            failure = t;
+        }
+        // Counted as finished before callers can observe the outcome.
+        pending.decrementAndGet();
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(result);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package service;
+
+import config.DatabaseConnection;
+import config.TransactionAwareDataSource;
+import utils.DealershipExceptions.DatabaseException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import static utils.Constants.*;
+
+/**
+ * Runs several service calls as one database transaction with one commit.
+ * Every DAO built on the template's {@link TransactionAwareDataSource} and called
+ * from the same thread inside {@link #execute(Work)} uses the transaction's
+ * connection; calls handed to other threads (e.g. {@link ServiceExecutor}) do not.
+ * A template nested inside another joins the outer transaction.
+ */
+public final class TransactionTemplate {
+
+    /**
+     * The transactional part of a workflow.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(UnitOfWork unit) throws SQLException;
+    }
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final TransactionAwareDataSource dataSource;
+    private final int isolation;
+
+    public TransactionTemplate() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    public TransactionTemplate(TransactionAwareDataSource dataSource) {
+        this(dataSource, Connection.TRANSACTION_NONE);
+    }
+
+    /**
+     * @param isolation a {@code Connection.TRANSACTION_*} level, or
+     *                  {@link Connection#TRANSACTION_NONE} for the connection's default
+     */
+    public TransactionTemplate(TransactionAwareDataSource dataSource, int isolation) {
+        this.dataSource = Objects.requireNonNull(dataSource, ERROR_NULL_DATA_SOURCE);
+        this.isolation = isolation;
+    }
+
+    public TransactionTemplate withIsolation(int isolation) {
+        return new TransactionTemplate(dataSource, isolation);
+    }
+
+    /**
+     * Runs {@code work}, flushes the writes it queued and commits. Any exception rolls
+     * everything back; an {@link SQLException} is rethrown as a {@link DatabaseException}.
+     */
+    public <T> T execute(Work<T> work) {
+        UnitOfWork outer = CURRENT.get();
+        if (outer != null) {
+            return run(work, outer);
+        }
+
+        UnitOfWork unit = new UnitOfWork();
+        try {
+            dataSource.begin(isolation);
+        } catch (SQLException e) {
+            throw new DatabaseException(ERROR_TRANSACTION_ROLLED_BACK, e);
+        }
+        CURRENT.set(unit);
+        try {
+            T result = work.run(unit);
+            unit.flush();
+            dataSource.commit();
+            return result;
+        } catch (SQLException e) {
+            rollback(e);
+            throw new DatabaseException(ERROR_TRANSACTION_ROLLED_BACK, e);
+        } catch (RuntimeException | Error e) {
+            rollback(e);
+            throw e;
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    private static <T> T run(Work<T> work, UnitOfWork unit) {
+        try {
+            return work.run(unit);
+        } catch (SQLException e) {
+            throw new DatabaseException(ERROR_TRANSACTION_ROLLED_BACK, e);
+        }
+    }
+
+    private void rollback(Throwable failure) {
+        if (!dataSource.isActive()) {
+            return;
+        }
+        try {
+            dataSource.rollback();
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package service;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes queued during one {@link TransactionTemplate} transaction. Items queued for
+ * the same writer are handed to it as one list, so they go out as one batch;
+ * writers run in the order they were first used, at {@link #flush()} or just
+ * before the transaction commits.
+ */
+public final class UnitOfWork {
+
+    /**
+     * Writes a group of queued items, e.g. with a DAO's {@code insertAll}.
+     */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        void write(List<T> items) throws SQLException;
+    }
+
+    private final Map<BatchWriter<?>, List<Object>> queued = new LinkedHashMap<>();
+
+    UnitOfWork() {
+    }
+
+    public <T> void queue(BatchWriter<T> writer, T item) {
+        queued.computeIfAbsent(writer, key -> new ArrayList<>()).add(item);
+    }
+
+    public int pendingWrites() {
+        int pending = 0;
+        for (List<Object> items : queued.values()) {
+            pending += items.size();
+        }
+        return pending;
+    }
+
+    /**
+     * Runs the queued writes now, e.g. to read back generated ids before committing.
+     */
+    @SuppressWarnings("unchecked")
+    public void flush() throws SQLException {
+        while (!queued.isEmpty()) {
+            Map.Entry<BatchWriter<?>, List<Object>> next = queued.entrySet().iterator().next();
+            queued.remove(next.getKey());
+            ((BatchWriter<Object>) next.getKey()).write(next.getValue());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package transfer;
+
+import config.SQLQueries.SnapshotQueries;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static utils.Constants.*;
+
+/**
+ * Dumps every {@link ExportTable} to a file, reading each table through a
+ * forward-only cursor and writing rows as they arrive, so heap use does not
+ * depend on table size.
+ * <p>
+ * All files reflect the same point in time. On MySQL each table is read on its
+ * own connection in parallel: the tables are briefly locked for writes while every
+ * connection opens a consistent-snapshot transaction, then unlocked before any
+ * data is read. Other databases read the tables one after another inside a
+ * single serializable transaction; repeatable read is not enough there, since
+ * e.g. H2 takes each table's snapshot only when that table is first read.
+ */
+public final class BulkExporter {
+
+    private static final int PROGRESS_INTERVAL = 50_000;
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private final DataSource dataSource;
+
+    public BulkExporter(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, ERROR_NULL_DATA_SOURCE);
+    }
+
+    public ExportReport exportAll(Path directory, DataFormat format, boolean gzip,
+                                  Consumer<ExportProgress> progress) throws IOException, SQLException {
+        Objects.requireNonNull(progress);
+        Files.createDirectories(directory);
+        long start = System.nanoTime();
+
+        boolean parallel;
+        try (Connection probe = dataSource.getConnection()) {
+            parallel = supportsSynchronizedSnapshots(probe);
+        }
+        List<ExportReport.TableExport> tables = parallel
+                ? exportInParallel(directory, format, gzip, progress)
+                : exportSequentially(directory, format, gzip, progress);
+        return new ExportReport(tables, parallel, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private List<ExportReport.TableExport> exportInParallel(Path directory, DataFormat format, boolean gzip,
+                                                            Consumer<ExportProgress> progress)
+            throws IOException, SQLException {
+        ExportTable[] exportTables = ExportTable.values();
+        List<Connection> connections = new ArrayList<>(exportTables.length);
+        try {
+            openSynchronizedSnapshots(connections, exportTables.length);
+
+            List<Future<ExportReport.TableExport>> results = new ArrayList<>(exportTables.length);
+            try (ExecutorService workers = Executors.newFixedThreadPool(exportTables.length)) {
+                for (int i = 0; i < exportTables.length; i++) {
+                    Connection conn = connections.get(i);
+                    ExportTable table = exportTables[i];
+                    results.add(workers.submit(() -> exportTable(conn, table, directory, format, gzip, progress)));
+                }
+            }
+
+            List<ExportReport.TableExport> tables = new ArrayList<>(exportTables.length);
+            for (Future<ExportReport.TableExport> result : results) {
+                tables.add(getExport(result));
+            }
+            return tables;
+        } finally {
+            for (Connection conn : connections) {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * While writes are blocked by a table lock, starts a consistent-snapshot
+     * transaction on each connection, so they all see the same data.
+     */
+    private void openSynchronizedSnapshots(List<Connection> connections, int count) throws SQLException {
+        try (Connection lock = dataSource.getConnection();
+             Statement lockStatement = lock.createStatement()) {
+            lockStatement.execute(SnapshotQueries.LOCK_TABLES);
+            try {
+                for (int i = 0; i < count; i++) {
+                    Connection conn = dataSource.getConnection();
+                    connections.add(conn);
+                    conn.setAutoCommit(false);
+                    conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                    try (Statement statement = conn.createStatement()) {
+                        statement.execute(SnapshotQueries.START_CONSISTENT_SNAPSHOT);
+                    }
+                }
+            } finally {
+                lockStatement.execute(SnapshotQueries.UNLOCK_TABLES);
+            }
+        }
+    }
+
+    private List<ExportReport.TableExport> exportSequentially(Path directory, DataFormat format, boolean gzip,
+                                                              Consumer<ExportProgress> progress)
+            throws IOException, SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            List<ExportReport.TableExport> tables = new ArrayList<>();
+            for (ExportTable table : ExportTable.values()) {
+                tables.add(exportTable(conn, table, directory, format, gzip, progress));
+            }
+            conn.commit();
+            return tables;
+        }
+    }
+
+    private ExportReport.TableExport exportTable(Connection conn, ExportTable table, Path directory,
+                                                 DataFormat format, boolean gzip,
+                                                 Consumer<ExportProgress> progress)
+            throws IOException, SQLException {
+        Path target = directory.resolve(table.tableName() + format.extension() + (gzip ? GZIP_EXTENSION : ""));
+        Path partial = target.resolveSibling(target.getFileName() + PARTIAL_SUFFIX);
+        long rows = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                table.query(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery();
+                 RecordWriter writer = RecordWriter.open(partial, format, gzip, columnsOf(rs.getMetaData()))) {
+                Object[] row = new Object[rs.getMetaData().getColumnCount()];
+                while (rs.next()) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    writer.writeRow(row);
+                    if (++rows % PROGRESS_INTERVAL == 0) {
+                        progress.accept(new ExportProgress(table, rows, false));
+                    }
+                }
+            }
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        progress.accept(new ExportProgress(table, rows, true));
+        return new ExportReport.TableExport(table, target, rows, Files.size(target));
+    }
+
+    private static List<String> columnsOf(ResultSetMetaData metaData) throws SQLException {
+        List<String> columns = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.add(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT));
+        }
+        return columns;
+    }
+
+    private static boolean supportsSynchronizedSnapshots(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        return product.contains("mysql") || product.contains("mariadb");
+    }
+
+    private static ExportReport.TableExport getExport(Future<ExportReport.TableExport> result)
+            throws IOException, SQLException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ERROR_EXPORT_INTERRUPTED, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof SQLException sql) {
+                throw sql;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package transfer;
+
+import config.DatabaseConnection;
+import dao.BatchResult;
+import model.Car;
+import model.Passenger;
+import service.CarService;
+import service.PassengerService;
+import utils.DealershipExceptions.DatabaseException;
+import utils.DealershipExceptions.DealershipException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static utils.Constants.*;
+
+/**
+ * Streams an import file into the database.
+ * <p>
+ * The calling thread parses records and hands chunks of {@code batchSize} rows to
+ * {@code threads} workers. Each worker validates its chunk with the service rules and
+ * writes it with the batched, per-chunk transactions of {@code addAll}. The reader
+ * waits when {@code 2 * threads} chunks are in flight, so memory stays bounded
+ * whatever the file size. Rows that fail parsing or validation go to the rejects file.
+ */
+public final class BulkImporter {
+
+    private final CarService carService;
+    private final PassengerService passengerService;
+    private final int batchSize;
+    private final int threads;
+
+    public BulkImporter(CarService carService, PassengerService passengerService, int batchSize, int threads) {
+        if (batchSize <= 0 || threads <= 0) {
+            throw new IllegalArgumentException(ERROR_INVALID_IMPORT_CONFIG);
+        }
+        this.carService = Objects.requireNonNull(carService, ERROR_NULL_SERVICE);
+        this.passengerService = Objects.requireNonNull(passengerService, ERROR_NULL_SERVICE);
+        this.batchSize = batchSize;
+        this.threads = threads;
+    }
+
+    /**
+     * Imports {@code source} (CSV or JSON lines, optionally gzip-compressed).
+     *
+     * @throws DatabaseException if the database fails; rows read so far are in the rejects file
+     */
+    public ImportReport importFile(ImportType type, Path source, Path rejects) throws IOException {
+        long start = System.nanoTime();
+        LongAdder read = new LongAdder();
+        LongAdder imported = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Semaphore inFlight = new Semaphore(threads * 2);
+        AtomicInteger workerNumber = new AtomicInteger();
+
+        try (RecordReader reader = RecordReader.open(source, DataFormat.of(source));
+             RejectsWriter rejectsWriter = new RejectsWriter(rejects)) {
+            ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, IMPORT_WORKER_THREAD + workerNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try (workers) {
+                List<SourceRecord> chunk = new ArrayList<>(batchSize);
+                while (failure.get() == null) {
+                    SourceRecord record;
+                    try {
+                        record = reader.next();
+                    } catch (MalformedRecordException e) {
+                        read.increment();
+                        rejected.increment();
+                        rejectsWriter.reject(e.getRecord(), e.getMessage());
+                        continue;
+                    }
+                    if (record == null) {
+                        break;
+                    }
+                    read.increment();
+                    chunk.add(record);
+                    if (chunk.size() == batchSize) {
+                        submit(workers, inFlight, new Chunk(type, chunk, rejectsWriter, imported, rejected, failure));
+                        chunk = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!chunk.isEmpty() && failure.get() == null) {
+                    submit(workers, inFlight, new Chunk(type, chunk, rejectsWriter, imported, rejected, failure));
+                }
+            }
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return new ImportReport(type, read.sum(), imported.sum(), rejected.sum(),
+                Duration.ofNanos(System.nanoTime() - start), rejects);
+    }
+
+    private void submit(ExecutorService workers, Semaphore inFlight, Chunk chunk) throws IOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ERROR_IMPORT_INTERRUPTED, e);
+        }
+        // Workers outlive this import, so the reader's session is handed over per chunk.
+        workers.execute(DatabaseConnection.inCallerSession(() -> {
+            try {
+                chunk.run();
+            } finally {
+                inFlight.release();
+            }
+        }));
+    }
+
+    /** One batch of records, validated and written by a worker thread. */
+    private final class Chunk implements Runnable {
+        private final ImportType type;
+        private final List<SourceRecord> records;
+        private final RejectsWriter rejectsWriter;
+        private final LongAdder imported;
+        private final LongAdder rejected;
+        private final AtomicReference<RuntimeException> failure;
+
+        private Chunk(ImportType type, List<SourceRecord> records, RejectsWriter rejectsWriter,
+                      LongAdder imported, LongAdder rejected, AtomicReference<RuntimeException> failure) {
+            this.type = type;
+            this.records = records;
+            this.rejectsWriter = rejectsWriter;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            if (failure.get() != null) {
+                rejectAll(ERROR_IMPORT_ABORTED);
+                return;
+            }
+            try {
+                switch (type) {
+                    case CARS -> importCars();
+                    case PASSENGERS -> importPassengers();
+                    case SEATS -> importSeats();
+                }
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                rejectAll(e.getMessage());
+            }
+        }
+
+        private void importCars() {
+            List<Car> cars = new ArrayList<>(records.size());
+            Map<Car, SourceRecord> sources = new IdentityHashMap<>(records.size() * 2);
+            for (SourceRecord record : records) {
+                try {
+                    Car car = new Car(record.field(COLUMN_LICENSE_PLATE), record.field(COLUMN_BRAND),
+                            record.field(COLUMN_MODEL), record.field(COLUMN_COLOR));
+                    cars.add(car);
+                    sources.put(car, record);
+                } catch (NullPointerException | IllegalArgumentException e) {
+                    reject(record, e.getMessage());
+                }
+            }
+            record(carService.addAll(cars), sources);
+        }
+
+        private void importPassengers() {
+            List<Passenger> passengers = new ArrayList<>(records.size());
+            Map<Passenger, SourceRecord> sources = new IdentityHashMap<>(records.size() * 2);
+            for (SourceRecord record : records) {
+                try {
+                    Passenger passenger = new Passenger(record.field(COLUMN_NAME),
+                            parseInt(record, COLUMN_AGE), parseDouble(record, COLUMN_WEIGHT));
+                    passengers.add(passenger);
+                    sources.put(passenger, record);
+                } catch (IllegalArgumentException e) {
+                    reject(record, e.getMessage());
+                }
+            }
+            record(passengerService.addAll(passengers), sources);
+        }
+
+        /**
+         * Each seat is its own short transaction: the capacity check locks the car row,
+         * and holding several car locks in one transaction would invite deadlocks
+         * between workers.
+         */
+        private void importSeats() {
+            for (int i = 0; i < records.size(); i++) {
+                SourceRecord record = records.get(i);
+                try {
+                    passengerService.addPassengerToCar(parseInt(record, COLUMN_PASSENGER_ID), parseInt(record, COLUMN_CAR_ID));
+                    imported.increment();
+                } catch (DatabaseException e) {
+                    failure.compareAndSet(null, e);
+                    records.subList(i, records.size()).forEach(remaining -> reject(remaining, e.getMessage()));
+                    return;
+                } catch (DealershipException | IllegalArgumentException e) {
+                    reject(record, e.getMessage());
+                }
+            }
+        }
+
+        private <T> void record(BatchResult<T> result, Map<T, SourceRecord> sources) {
+            imported.add(result.getInserted().size());
+            for (BatchResult.Failure<T> rejectedRow : result.getFailures()) {
+                reject(sources.get(rejectedRow.item()), rejectedRow.reason());
+            }
+        }
+
+        private void rejectAll(String reason) {
+            for (SourceRecord record : records) {
+                reject(record, reason);
+            }
+        }
+
+        private void reject(SourceRecord record, String reason) {
+            rejected.increment();
+            rejectsWriter.reject(record, reason);
+        }
+    }
+
+    private static int parseInt(SourceRecord record, String column) {
+        String value = record.field(column);
+        try {
+            return Integer.parseInt(value == null ? "" : value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_NUMBER, column, value));
+        }
+    }
+
+    private static double parseDouble(SourceRecord record, String column) {
+        String value = record.field(column);
+        try {
+            return Double.parseDouble(value == null ? "" : value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_NUMBER, column, value));
+        }
+    }
+}
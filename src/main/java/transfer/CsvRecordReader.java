@@ -0,0 +1,171 @@
+package transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static utils.Constants.*;
+
+/**
+ * RFC 4180 CSV: the first record names the columns; fields may be quoted, and
+ * quoted fields may contain commas, doubled quotes and line breaks.
+ */
+final class CsvRecordReader implements RecordReader {
+
+    private static final int EOF = -1;
+
+    private final BufferedReader reader;
+    private final List<String> header;
+    private final StringBuilder raw = new StringBuilder(256);
+    private final StringBuilder field = new StringBuilder(64);
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private int pending = EOF - 1;
+
+    CsvRecordReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        List<String> names = readFields();
+        if (names == null) {
+            throw new IOException(ERROR_EMPTY_IMPORT_FILE);
+        }
+        this.header = new ArrayList<>(names.size());
+        for (String name : names) {
+            header.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    public SourceRecord next() throws IOException {
+        long startLine;
+        List<String> values;
+        do {
+            startLine = line;
+            values = readFields();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isEmpty());
+
+        Map<String, String> fields = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < Math.min(header.size(), values.size()); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        SourceRecord record = new SourceRecord(startLine, fields, raw.toString());
+        if (values.size() != header.size()) {
+            throw new MalformedRecordException(record,
+                    String.format(ERROR_COLUMN_COUNT, header.size(), values.size()));
+        }
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Fields of the next record, or {@code null} at the end of the input.
+     */
+    private List<String> readFields() throws IOException {
+        raw.setLength(0);
+        int c = read();
+        if (c == EOF) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (c == EOF) {
+                if (inQuotes) {
+                    throw new MalformedRecordException(new SourceRecord(line, Map.of(), raw.toString()),
+                            ERROR_UNTERMINATED_QUOTE);
+                }
+                fields.add(value(quoted));
+                return fields;
+            }
+            if (inQuotes) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty() && !quoted) {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(value(quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                line++;
+                fields.add(value(quoted));
+                trimLineBreak();
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private String value(boolean quoted) {
+        return quoted ? field.toString() : field.toString().trim();
+    }
+
+    private void trimLineBreak() {
+        int length = raw.length();
+        while (length > 0 && (raw.charAt(length - 1) == '\n' || raw.charAt(length - 1) == '\r')) {
+            length--;
+        }
+        raw.setLength(length);
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pending != EOF - 1) {
+            c = pending;
+            pending = EOF - 1;
+        } else {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+            }
+            c = limit <= 0 ? EOF : buffer[position++];
+        }
+        if (c != EOF) {
+            raw.append((char) c);
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c != EOF) {
+            raw.setLength(raw.length() - 1);
+        }
+        pending = c;
+    }
+}
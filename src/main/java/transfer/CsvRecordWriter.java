@@ -0,0 +1,46 @@
+package transfer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV with a header row; {@code null} is written as an empty field.
+ */
+final class CsvRecordWriter implements RecordWriter {
+
+    private final BufferedWriter writer;
+
+    CsvRecordWriter(BufferedWriter writer, List<String> columns) throws IOException {
+        this.writer = writer;
+        writeRow(columns.toArray());
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(quote(values[i].toString()));
+            }
+        }
+        writer.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,50 @@
+package transfer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static utils.Constants.*;
+
+/**
+ * File formats understood by the import and export commands. Either may be gzip-compressed.
+ */
+public enum DataFormat {
+    CSV(".csv"),
+    JSONL(".jsonl");
+
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private final String extension;
+
+    DataFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Format of {@code file} from its extension, ignoring a trailing {@code .gz}.
+     */
+    public static DataFormat of(Path file) {
+        String name = stripGzip(file.getFileName().toString().toLowerCase(Locale.ROOT));
+        for (DataFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        if (name.endsWith(".json")) {
+            return JSONL;
+        }
+        throw new IllegalArgumentException(String.format(ERROR_UNKNOWN_FORMAT, file));
+    }
+
+    static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(GZIP_EXTENSION);
+    }
+
+    private static String stripGzip(String name) {
+        return name.endsWith(GZIP_EXTENSION) ? name.substring(0, name.length() - GZIP_EXTENSION.length()) : name;
+    }
+}
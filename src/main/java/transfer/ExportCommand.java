@@ -0,0 +1,65 @@
+package transfer;
+
+import config.DatabaseConnection;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Locale;
+
+import static utils.Constants.*;
+
+/**
+ * Non-interactive export: {@code export <directory> [--format=csv|jsonl] [--no-gzip]}.
+ */
+public final class ExportCommand {
+
+    public static final String NAME = "export";
+
+    private static final String OPTION_FORMAT = "--format=";
+    private static final String OPTION_NO_GZIP = "--no-gzip";
+
+    private ExportCommand() {
+    }
+
+    /**
+     * Runs the command with the arguments that follow {@code export}; returns the process exit code.
+     */
+    public static int run(String[] args) {
+        if (args.length < 1) {
+            System.err.println(EXPORT_USAGE);
+            return EXIT_USAGE;
+        }
+
+        DataFormat format = DataFormat.CSV;
+        boolean gzip = true;
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            if (option.startsWith(OPTION_FORMAT)) {
+                try {
+                    format = DataFormat.valueOf(option.substring(OPTION_FORMAT.length()).toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(EXPORT_USAGE);
+                    return EXIT_USAGE;
+                }
+            } else if (option.equals(OPTION_NO_GZIP)) {
+                gzip = false;
+            } else {
+                System.err.println(EXPORT_USAGE);
+                return EXIT_USAGE;
+            }
+        }
+
+        try {
+            BulkExporter exporter = new BulkExporter(DatabaseConnection.getDataSource());
+            ExportReport report = exporter.exportAll(Path.of(args[0]), format, gzip, progress ->
+                    System.err.println(String.format(EXPORT_PROGRESS,
+                            progress.table().tableName(), progress.rows(), progress.finished() ? EXPORT_DONE : "")));
+            System.out.println(report);
+            return EXIT_OK;
+        } catch (IOException | SQLException e) {
+            System.err.println(ERROR_MESSAGE_PREFIX + e.getMessage());
+            return EXIT_FAILURE;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package transfer;
+
+/**
+ * Rows written so far for one table; {@code finished} is set on the last report.
+ */
+public record ExportProgress(ExportTable table, long rows, boolean finished) {
+}
@@ -0,0 +1,29 @@
+package transfer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Files written by an export and how the snapshot was taken.
+ */
+public record ExportReport(List<TableExport> tables, boolean parallel, Duration elapsed) {
+
+    public record TableExport(ExportTable table, Path file, long rows, long bytes) {
+    }
+
+    public long totalRows() {
+        return tables.stream().mapToLong(TableExport::rows).sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format("Exportación %s: %d filas en %.1f s",
+                parallel ? "en paralelo" : "secuencial", totalRows(), elapsed.toMillis() / 1_000.0));
+        for (TableExport table : tables) {
+            text.append(String.format("%n  %s: %d filas, %d bytes -> %s",
+                    table.table().tableName(), table.rows(), table.bytes(), table.file()));
+        }
+        return text.toString();
+    }
+}
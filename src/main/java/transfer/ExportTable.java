@@ -0,0 +1,31 @@
+package transfer;
+
+import config.SQLQueries.CarPassengerQueries;
+import config.SQLQueries.CarQueries;
+import config.SQLQueries.PassengerQueries;
+
+/**
+ * Tables written by an export. Each file can be loaded back with the matching
+ * {@link ImportType} (ids are regenerated on import).
+ */
+public enum ExportTable {
+    CARS("cars", CarQueries.FIND_ALL),
+    PASSENGERS("passengers", PassengerQueries.FIND_ALL),
+    CAR_PASSENGERS("car_passengers", CarPassengerQueries.FIND_ALL);
+
+    private final String tableName;
+    private final String query;
+
+    ExportTable(String tableName, String query) {
+        this.tableName = tableName;
+        this.query = query;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    String query() {
+        return query;
+    }
+}
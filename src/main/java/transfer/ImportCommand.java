@@ -0,0 +1,78 @@
+package transfer;
+
+import dao.impl.CarDAOImpl;
+import dao.impl.PassengerDAOImpl;
+import dao.index.IndexedCarDAO;
+import service.CarService;
+import service.PassengerService;
+import utils.DealershipExceptions.DealershipException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import static utils.Constants.*;
+
+/**
+ * Non-interactive import:
+ * {@code import <cars|passengers|seats> <file> [--rejects=<file>] [--batch=<rows>] [--threads=<n>]}.
+ */
+public final class ImportCommand {
+
+    public static final String NAME = "import";
+
+    private static final String OPTION_REJECTS = "--rejects=";
+    private static final String OPTION_BATCH = "--batch=";
+    private static final String OPTION_THREADS = "--threads=";
+
+    private ImportCommand() {
+    }
+
+    /**
+     * Runs the command with the arguments that follow {@code import}; returns the process exit code.
+     */
+    public static int run(String[] args) {
+        if (args.length < 2) {
+            System.err.println(IMPORT_USAGE);
+            return EXIT_USAGE;
+        }
+
+        try {
+            ImportType type = ImportType.of(args[0]);
+            Path source = Path.of(args[1]);
+            Path rejects = Path.of(args[1] + REJECTS_SUFFIX);
+            int batchSize = DEFAULT_BATCH_SIZE;
+            int threads = Runtime.getRuntime().availableProcessors();
+            for (int i = 2; i < args.length; i++) {
+                String option = args[i];
+                if (option.startsWith(OPTION_REJECTS)) {
+                    rejects = Path.of(option.substring(OPTION_REJECTS.length()));
+                } else if (option.startsWith(OPTION_BATCH)) {
+                    batchSize = Integer.parseInt(option.substring(OPTION_BATCH.length()));
+                } else if (option.startsWith(OPTION_THREADS)) {
+                    threads = Integer.parseInt(option.substring(OPTION_THREADS.length()));
+                } else {
+                    System.err.println(IMPORT_USAGE);
+                    return EXIT_USAGE;
+                }
+            }
+
+            IndexedCarDAO carDAO = new IndexedCarDAO(new CarDAOImpl());
+            if (type == ImportType.CARS) {
+                carDAO.load();
+            }
+            BulkImporter importer = new BulkImporter(new CarService(carDAO),
+                    new PassengerService(new PassengerDAOImpl(), carDAO), batchSize, threads);
+            ImportReport report = importer.importFile(type, source, rejects);
+            System.out.println(report);
+            return report.rejected() == 0 ? EXIT_OK : EXIT_WITH_REJECTS;
+        } catch (IllegalArgumentException e) {
+            System.err.println(ERROR_MESSAGE_PREFIX + e.getMessage());
+            System.err.println(IMPORT_USAGE);
+            return EXIT_USAGE;
+        } catch (IOException | SQLException | DealershipException e) {
+            System.err.println(ERROR_MESSAGE_PREFIX + e.getMessage());
+            return EXIT_FAILURE;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package transfer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Totals of a finished import.
+ */
+public record ImportReport(ImportType type, long read, long imported, long rejected,
+                           Duration elapsed, Path rejectsFile) {
+
+    public double rowsPerSecond() {
+        long millis = Math.max(1, elapsed.toMillis());
+        return read * 1_000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Importación de %s: %d leídos, %d importados, %d rechazados en %.1f s (%.0f filas/s). Rechazos: %s",
+                type.name().toLowerCase(), read, imported, rejected,
+                elapsed.toMillis() / 1_000.0, rowsPerSecond(), rejectsFile);
+    }
+}
@@ -0,0 +1,27 @@
+package transfer;
+
+import java.util.Locale;
+
+import static utils.Constants.*;
+
+/**
+ * What an import file contains. CSV headers and JSON keys use the column names.
+ * <ul>
+ *     <li>{@code cars}: license_plate, brand, model, color</li>
+ *     <li>{@code passengers}: name, age, weight</li>
+ *     <li>{@code seats}: car_id, passenger_id</li>
+ * </ul>
+ */
+public enum ImportType {
+    CARS,
+    PASSENGERS,
+    SEATS;
+
+    public static ImportType of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(ERROR_UNKNOWN_IMPORT_TYPE, name), e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static utils.Constants.*;
+
+/**
+ * JSON lines: one flat object per line, e.g.
+ * {@code {"license_plate": "1234ABC", "brand": "Seat"}}. Values may be strings,
+ * numbers, booleans or null; nested objects and arrays are rejected.
+ */
+final class JsonLinesRecordReader implements RecordReader {
+
+    private final BufferedReader reader;
+    private long line;
+
+    JsonLinesRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public SourceRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+
+        try {
+            return new SourceRecord(line, new Parser(text).parseObject(), text);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedRecordException(new SourceRecord(line, Map.of(), text), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /** Parser for a single flat JSON object. */
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private Map<String, String> parseObject() {
+            Map<String, String> fields = new HashMap<>();
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return end(fields);
+            }
+            while (true) {
+                skipWhitespace();
+                String name = parseString().toLowerCase(Locale.ROOT);
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                fields.put(name, parseValue());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return end(fields);
+                }
+                if (c != ',') {
+                    throw error();
+                }
+            }
+        }
+
+        private Map<String, String> end(Map<String, String> fields) {
+            skipWhitespace();
+            if (position != text.length()) {
+                throw error();
+            }
+            return fields;
+        }
+
+        private String parseValue() {
+            char c = peek();
+            if (c == '"') {
+                return parseString();
+            }
+            if (c == '{' || c == '[') {
+                throw new IllegalArgumentException(String.format(ERROR_JSON_NESTED, position + 1));
+            }
+            int start = position;
+            while (position < text.length() && ",} \t".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty() || !(literal.equals("true") || literal.equals("false") || isNumber(literal))) {
+                throw error();
+            }
+            return literal;
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error();
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error();
+                        }
+                        position += 4;
+                    }
+                    default -> throw error();
+                }
+            }
+        }
+
+        private static boolean isNumber(String literal) {
+            try {
+                Double.parseDouble(literal);
+                return !literal.endsWith("d") && !literal.endsWith("f") && !literal.endsWith("D") && !literal.endsWith("F");
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private char peek() {
+            if (position >= text.length()) {
+                throw error();
+            }
+            return text.charAt(position);
+        }
+
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error();
+            }
+        }
+
+        private IllegalArgumentException error() {
+            return new IllegalArgumentException(String.format(ERROR_JSON_SYNTAX, Math.min(position, text.length()) + 1));
+        }
+    }
+}
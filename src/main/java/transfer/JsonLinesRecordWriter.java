@@ -0,0 +1,70 @@
+package transfer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One flat JSON object per row, keyed by column name.
+ */
+final class JsonLinesRecordWriter implements RecordWriter {
+
+    private final BufferedWriter writer;
+    private final String[] keys;
+
+    JsonLinesRecordWriter(BufferedWriter writer, List<String> columns) {
+        this.writer = writer;
+        this.keys = new String[columns.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = escape(columns.get(i)) + ':';
+        }
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        writer.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(keys[i]);
+            Object value = values[i];
+            if (value == null) {
+                writer.write("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                writer.write(value.toString());
+            } else {
+                writer.write(escape(value.toString()));
+            }
+        }
+        writer.write('}');
+        writer.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.append('"').toString();
+    }
+}
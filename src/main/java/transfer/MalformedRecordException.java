@@ -0,0 +1,22 @@
+package transfer;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Serial;
+
+/**
+ * A record that could not be parsed. It carries the line and raw text for the
+ * rejects file; the reader can go on with the next record.
+ */
+@Getter
+public class MalformedRecordException extends IOException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+    private final transient SourceRecord record;
+
+    public MalformedRecordException(SourceRecord record, String message) {
+        super(message);
+        this.record = record;
+    }
+}
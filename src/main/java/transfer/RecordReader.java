@@ -0,0 +1,48 @@
+package transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Pulls one record at a time from an import file, so memory use does not
+ * depend on the file size.
+ */
+public interface RecordReader extends AutoCloseable {
+
+    int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Next record, or {@code null} at the end of the file.
+     *
+     * @throws MalformedRecordException if the current record cannot be parsed;
+     *                                  reading can continue with the next one
+     */
+    SourceRecord next() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static RecordReader open(Path file, DataFormat format) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            if (DataFormat.isGzip(file)) {
+                in = new GZIPInputStream(in, BUFFER_SIZE);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+            return switch (format) {
+                case CSV -> new CsvRecordReader(reader);
+                case JSONL -> new JsonLinesRecordReader(reader);
+            };
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package transfer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows to an export file one at a time.
+ */
+public interface RecordWriter extends AutoCloseable {
+
+    void writeRow(Object[] values) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static RecordWriter open(Path file, DataFormat format, boolean gzip, List<String> columns) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        try {
+            if (gzip) {
+                out = new GZIPOutputStream(out, RecordReader.BUFFER_SIZE);
+            }
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8),
+                    RecordReader.BUFFER_SIZE);
+            return switch (format) {
+                case CSV -> new CsvRecordWriter(writer, columns);
+                case JSONL -> new JsonLinesRecordWriter(writer, columns);
+            };
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package transfer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static utils.Constants.*;
+
+/**
+ * CSV file of rejected rows: source line, reason and the original record.
+ * Shared by the import workers, hence synchronized.
+ */
+final class RejectsWriter implements AutoCloseable {
+
+    private final BufferedWriter writer;
+
+    RejectsWriter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        writer.write(REJECTS_HEADER);
+        writer.newLine();
+    }
+
+    synchronized void reject(SourceRecord record, String reason) {
+        try {
+            writer.write(Long.toString(record.line()));
+            writer.write(',');
+            writer.write(CsvRecordWriter.quote(reason));
+            writer.write(',');
+            writer.write(CsvRecordWriter.quote(record.raw()));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,14 @@
+package transfer;
+
+import java.util.Map;
+
+/**
+ * One row of an import file: its field values by column name, the line it
+ * starts on and its original text (written to the rejects file if it fails).
+ */
+public record SourceRecord(long line, Map<String, String> fields, String raw) {
+
+    public String field(String name) {
+        return fields.get(name);
+    }
+}
@@ -0,0 +1,70 @@
+package transfer;
+
+import dao.SyncResult;
+import dao.impl.CarDAOImpl;
+import model.Car;
+import service.CarService;
+import utils.DealershipExceptions.DealershipException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static utils.Constants.*;
+
+/**
+ * Non-interactive car feed synchronization: {@code sync <file> [--delete-missing]}.
+ * The file holds the full car list in the import format; it is applied as a whole
+ * or not at all, so any unreadable or invalid row aborts the sync.
+ */
+public final class SyncCommand {
+
+    public static final String NAME = "sync";
+
+    private static final String OPTION_DELETE_MISSING = "--delete-missing";
+
+    private SyncCommand() {
+    }
+
+    /**
+     * Runs the command with the arguments that follow {@code sync}; returns the process exit code.
+     */
+    public static int run(String[] args) {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !OPTION_DELETE_MISSING.equals(args[1]))) {
+            System.err.println(SYNC_USAGE);
+            return EXIT_USAGE;
+        }
+
+        try {
+            Path source = Path.of(args[0]);
+            List<Car> feed = readCars(source);
+            SyncResult result = new CarService(new CarDAOImpl()).sync(feed, args.length == 2);
+            System.out.println(result);
+            return EXIT_OK;
+        } catch (IllegalArgumentException e) {
+            System.err.println(ERROR_MESSAGE_PREFIX + e.getMessage());
+            System.err.println(SYNC_USAGE);
+            return EXIT_USAGE;
+        } catch (IOException | DealershipException e) {
+            System.err.println(ERROR_MESSAGE_PREFIX + e.getMessage());
+            return EXIT_FAILURE;
+        }
+    }
+
+    private static List<Car> readCars(Path source) throws IOException {
+        List<Car> cars = new ArrayList<>();
+        try (RecordReader reader = RecordReader.open(source, DataFormat.of(source))) {
+            SourceRecord record;
+            while ((record = reader.next()) != null) {
+                try {
+                    cars.add(new Car(record.field(COLUMN_LICENSE_PLATE), record.field(COLUMN_BRAND),
+                            record.field(COLUMN_MODEL), record.field(COLUMN_COLOR)));
+                } catch (NullPointerException | IllegalArgumentException e) {
+                    throw new IOException(String.format(ERROR_SYNC_RECORD, record.line(), e.getMessage()), e);
+                }
+            }
+        }
+        return cars;
+    }
+}
@@ -63,12 +63,17 @@ public class Constants {
     public static final String PROMPT_NON_NEGATIVE_VALUE = "El valor no puede ser negativo";
     public static final String PROMPT_POSITIVE_VALUE = "El valor debe ser positivo";
     public static final String PROMPT_VALID_NUMBER = "Por favor, introduzca un número válido";
+    public static final String PROMPT_NEXT_PAGE = "-- Intro para la siguiente página, 'q' para terminar: ";
+    public static final String PROMPT_QUIT_PAGING = "q";
     public static final String PROMPT_RESOURCES_CLOSED = "Recursos cerrados correctamente.";
 
     // Error messages
     public static final String ERROR_NULL_PASSENGER_DAO = "El DAO de pasajeros no puede ser nulo";
     public static final String ERROR_NULL_CAR_DAO = "El DAO de coches no puede ser nulo";
     public static final String ERROR_MAX_CAPACITY = "El coche %d ha alcanzado su capacidad máxima de %d pasajeros";
+    public static final String ERROR_ALREADY_IN_CAR = "El pasajero %d ya está en el coche %d";
+    public static final String ERROR_SAME_CAR = "El coche de origen y el de destino deben ser distintos";
+    public static final String ERROR_PASSENGER_IN_CAR = "El pasajero %d está asignado a un coche; quítelo antes de eliminarlo";
     public static final String ERROR_DUPLICATE_LICENSE = "Ya existe un coche con esta matrícula: %s";
     public static final String ERROR_DATABASE = "Error en la base de datos: %s %s";
     public static final String ERROR_NULL_NAME = "El nombre no puede ser nulo";
@@ -89,13 +94,35 @@ public class Constants {
     public static final String ERROR_DELETE = "Error al eliminar coche con ID: ";
     public static final String ERROR_FIND = "Error al buscar coche con ID: ";
     public static final String ERROR_FIND_ALL = "Error al recuperar todos los coches";
+    public static final String ERROR_FIND_BY_IDS = "Error al buscar por ID, identificadores pedidos: ";
     public static final String ERROR_LICENSE_PLATE = "Error al comprobar matrícula: ";
     public static final String ERROR_CREATE_NO_ROWS = "Error al crear el coche, ninguna fila afectada.";
     public static final String ERROR_CREATE_NO_ID = "Error al crear el coche, no se obtuvo ID.";
     public static final String ERROR_ADD_TO_CAR = "Error al añadir pasajero %d al coche %d";
     public static final String ERROR_REMOVE_FROM_CAR = "Error al eliminar pasajero %d del coche %d";
+    public static final String ERROR_ASSIGN_ALL = "Error al añadir %d pasajeros al coche %d";
+    public static final String ERROR_MOVE_ALL = "Error al mover los pasajeros del coche %d al coche %d";
+    public static final String ERROR_CLEAR_CAR = "Error al vaciar el coche %d";
     public static final String ERROR_FIND_BY_CAR = "Error al buscar pasajeros del coche con ID: ";
+    public static final String ERROR_FIND_BY_PASSENGER = "Error al buscar coches del pasajero con ID: ";
+    public static final String ERROR_FIND_BY_PASSENGERS = "Error al buscar coches de pasajeros, identificadores pedidos: ";
+    public static final String ERROR_RECONCILE_PASSENGER_COUNT = "Error al revisar los contadores de pasajeros: ";
+    public static final String ERROR_RECONCILER_RUNNING = "La revisión periódica de contadores ya está en marcha";
+    public static final String WARN_PASSENGER_COUNT_REPAIRED = "Contador de pasajeros corregido en %d coches";
+    public static final String RECONCILER_THREAD = "passenger-count-reconciler";
+    public static final String ERROR_FIND_ALL_WITH_PASSENGERS = "Error al recuperar los coches con sus pasajeros";
     public static final String ERROR_UNEXPECTED = "Error inesperado: %s";
+    public static final String ERROR_INSERT_BATCH = "Error al insertar lote de filas: ";
+    public static final String ERROR_SYNC = "Error al sincronizar coches, filas recibidas: ";
+    public static final String ERROR_INVALID_BATCH_SIZE = "El tamaño de lote debe ser positivo";
+    public static final String ERROR_BATCH_NOT_EXECUTED = "Fila no ejecutada tras un error previo en el lote";
+    public static final String ERROR_NULL_COLLECTION = "La colección no puede ser nula";
+    public static final String ERROR_DUPLICATE_IN_BATCH = "Matrícula repetida dentro del lote: %s";
+    public static final String ERROR_INVALID_PAGE_SIZE = "El tamaño de página debe estar entre 1 y %d";
+    public static final String ERROR_INVALID_PAGE_TOKEN = "El token de página no puede ser negativo";
+    public static final String ERROR_FIND_PAGE = "Error al recuperar la página tras el ID: ";
+    public static final String ERROR_INVALID_CACHE_CONFIG = "La caché necesita un tamaño y un tiempo de vida positivos";
+    public static final String ERROR_INVALID_LOADER_WINDOW = "La ventana de agrupación de consultas no puede ser negativa";
 
 
     // Success messages
@@ -115,6 +142,7 @@ public class Constants {
     public static final String TITLE_ADD_PASSENGER = "\n=== AÑADIR NUEVO PASAJERO ===";
     public static final String TITLE_LIST_PASSENGERS = "\n=== LISTADO DE PASAJEROS ===";
     public static final String TITLE_LIST_CAR_PASSENGERS = "\n=== PASAJEROS DEL COCHE (ID: %d) ===";
+    public static final String TITLE_LIST_PASSENGER_CARS = "\n=== COCHES DEL PASAJERO (ID: %d) ===%n";
     public static final String TITLE_ADD_PASSENGER_TO_CAR = "\n=== AÑADIR PASAJERO A COCHE ===";
     public static final String TITLE_REMOVE_PASSENGER_FROM_CAR = "\n=== ELIMINAR PASAJERO DE COCHE ===";
 
@@ -129,6 +157,20 @@ public class Constants {
     public static final int MIN_AGE = 0;
     public static final double MIN_WEIGHT = 0.1;
     public static final String LICENSE_PLATE_REGEX = "^[0-9]{4}[A-Z]{3}$";
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int STREAM_FETCH_SIZE = 500;
+    public static final int PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int CACHE_MAX_ENTRIES = 10_000;
+    public static final long CACHE_TTL_SECONDS = 300;
+    public static final String PROPERTY_CACHE_ENABLED = "dealership.cache.enabled";
+    public static final int ASYNC_MAX_PENDING = 10_000;
+    public static final String PROPERTY_METRICS_ENABLED = "dealership.metrics.enabled";
+    public static final String PROPERTY_PLATE_INDEX_ENABLED = "dealership.plateIndex.enabled";
+    public static final String PROPERTY_LOADER_WINDOW_MICROS = "dealership.loader.windowMicros";
+    public static final long DEFAULT_LOADER_WINDOW_MICROS = 200;
+    public static final long RECONCILE_INTERVAL_MINUTES = 60;
+    public static final String PROPERTY_SCHEMA_MIGRATE = "dealership.schema.migrate";
 
     // Database column names
     public static final String COLUMN_ID = "id";
@@ -139,6 +181,11 @@ public class Constants {
     public static final String COLUMN_NAME = "name";
     public static final String COLUMN_AGE = "age";
     public static final String COLUMN_WEIGHT = "weight";
+    public static final String COLUMN_PASSENGER_ID = "passenger_id";
+    public static final String COLUMN_CAR_ID = "car_id";
+    public static final String COLUMN_VERSION = "version";
+    public static final String SQL_STATE_INTEGRITY_CONSTRAINT = "23";
+    public static final String COLUMN_PASSENGER_VERSION = "passenger_version";
 
     // Entities and fields
     public static final String ENTITY_CAR = "Coche";
@@ -156,8 +203,11 @@ public class Constants {
     public static final String OPERATION_DELETE = "al eliminar";
     public static final String OPERATION_FIND = "al buscar";
     public static final String OPERATION_LIST = "al listar";
+    public static final String OPERATION_SYNC = "al sincronizar";
     public static final String OPERATION_ADD_TO_CAR = "al añadir al coche";
     public static final String OPERATION_REMOVE_FROM_CAR = "al eliminar del coche";
+    public static final String OPERATION_MOVE_BETWEEN_CARS = "al mover entre coches";
+    public static final String OPERATION_CLEAR_CAR = "al vaciar el coche";
 
     // Validation error messages
     public static final String ERROR_NULL_CAR = "El coche no puede ser null";
@@ -187,6 +237,83 @@ public class Constants {
     public static final String DATABASE_CONNECTION_CLOSED = "Conexión a base de datos cerrada";
     public static final String DATABASE_CONNECTION_ERROR = "Error al cerrar la conexión: %s";
 
+    // Connection pool messages
+    public static final String ERROR_NULL_POOL_CONFIG = "La configuración del pool no puede ser nula";
+    public static final String ERROR_NULL_DATA_SOURCE = "El DataSource no puede ser nulo";
+    public static final String ERROR_POOL_CONFIG = "Valor de configuración inválido: %s";
+    public static final String ERROR_POOL_CONFIG_LOAD = "No se pudo leer la configuración de base de datos: %s";
+    public static final String ERROR_POOL_CLOSED = "El pool de conexiones está cerrado";
+    public static final String ERROR_POOL_TIMEOUT = "No se obtuvo conexión en %d ms (máximo %d conexiones en uso)";
+    public static final String ERROR_POOL_INTERRUPTED = "Interrumpido mientras se esperaba una conexión";
+    public static final String ERROR_CONNECTION_CLOSED = "La conexión ya fue devuelta al pool";
+    public static final String ERROR_TRANSACTION_ACTIVE = "Ya hay una transacción abierta en este hilo";
+    public static final String ERROR_NO_TRANSACTION = "No hay ninguna transacción abierta en este hilo";
+    public static final String ERROR_TRANSACTION_ROLLED_BACK = "Error en la base de datos: la transacción se ha deshecho";
+    public static final String ERROR_UNWRAP = "No es un wrapper de %s";
+    public static final String WARN_POOL_LEAK = "Posible fuga de conexión: prestada hace %d ms y no devuelta";
+    public static final String WARN_POOL_CONNECTION_DISCARDED = "Conexión descartada del pool: %s";
+    public static final String POOL_HOUSEKEEPER_THREAD = "db-pool-housekeeper";
+    public static final String POOL_BORROW_SITE = "Conexión obtenida aquí";
+    public static final String ERROR_STATEMENT_CLOSED = "La sentencia ya fue cerrada";
+    public static final String WARN_STATEMENT_CLOSE = "Error al cerrar una sentencia en caché: %s";
+    public static final String ERROR_SLOW_QUERY_FILE = "No se pudo abrir el registro de consultas lentas: %s";
+    public static final String SLOW_QUERY_WRITER_THREAD = "db-slow-query-writer";
+    public static final String SCHEMA_MIGRATED = "Esquema actualizado a la versión %d: %s";
+    public static final String WARN_SCHEMA_NEWER =
+            "La base de datos está en la versión %d del esquema, más nueva que la de la aplicación (%d)";
+    public static final String ERROR_SCHEMA_LOCK = "Otro proceso está migrando el esquema (esperados %d s)";
+    public static final String REPLICA_NAME_PREFIX = "replica-";
+    public static final String WARN_REPLICA_UNAVAILABLE = "Réplica %s no disponible, se lee del primario: %s";
+    public static final String WARN_REPLICA_CLOSE = "Error al cerrar una réplica: %s";
+
+    // Async executor messages
+    public static final String ERROR_NULL_SERVICE = "El servicio no puede ser nulo";
+    public static final String ERROR_NULL_EXECUTOR = "El ejecutor de peticiones no puede ser nulo";
+    public static final String ERROR_INVALID_ASYNC_CONFIG = "La concurrencia y la cola de peticiones deben ser positivas";
+    public static final String ERROR_ASYNC_CLOSED = "El ejecutor de peticiones está cerrado";
+    public static final String ERROR_ASYNC_SATURATED = "Demasiadas peticiones pendientes (máximo %d)";
+    public static final String ASYNC_THREAD_PREFIX = "dealership-request-";
+
+    // DAO metrics messages
+    public static final String ERROR_NULL_DAO_TARGET = "El DAO a instrumentar no puede ser nulo";
+    public static final String ERROR_NOT_AN_INTERFACE = "%s no es una interfaz";
+    public static final String ERROR_METRICS_JMX = "No se pudieron publicar las métricas por JMX: %s";
+    public static final String ERROR_METRICS_REPORT = "Error al entregar las métricas: %s";
+    public static final String ERROR_METRICS_REPORTER_RUNNING = "El informe periódico de métricas ya está en marcha";
+    public static final String METRICS_OBJECT_NAME = "dealership:type=DaoMetrics,dao=%s,operation=%s";
+    public static final String METRICS_REPORTER_THREAD = "dao-metrics-reporter";
+
+    // Bulk import messages
+    public static final String ERROR_UNKNOWN_FORMAT = "Formato de fichero no reconocido (se admite .csv o .jsonl, opcionalmente .gz): %s";
+    public static final String ERROR_UNKNOWN_IMPORT_TYPE = "Tipo de importación desconocido: %s (cars, passengers o seats)";
+    public static final String ERROR_INVALID_IMPORT_CONFIG = "El tamaño de lote y el número de hilos deben ser positivos";
+    public static final String ERROR_EMPTY_IMPORT_FILE = "El fichero no tiene cabecera";
+    public static final String ERROR_COLUMN_COUNT = "Se esperaban %d columnas y hay %d";
+    public static final String ERROR_UNTERMINATED_QUOTE = "Comillas sin cerrar al final del fichero";
+    public static final String ERROR_JSON_SYNTAX = "JSON inválido en la posición %d";
+    public static final String ERROR_JSON_NESTED = "Valor anidado no admitido en la posición %d";
+    public static final String ERROR_INVALID_NUMBER = "Valor numérico inválido en %s: %s";
+    public static final String ERROR_IMPORT_INTERRUPTED = "Importación interrumpida";
+    public static final String ERROR_IMPORT_ABORTED = "Importación cancelada por un error anterior";
+    public static final String IMPORT_WORKER_THREAD = "import-worker-";
+    public static final String REJECTS_HEADER = "linea,motivo,registro";
+    public static final String REJECTS_SUFFIX = ".rechazos.csv";
+    public static final String IMPORT_USAGE =
+            "Uso: import <cars|passengers|seats> <fichero.csv|.jsonl[.gz]> [--rejects=<fichero>] [--batch=<filas>] [--threads=<n>]";
+    public static final String EXPORT_USAGE = "Uso: export <directorio> [--format=csv|jsonl] [--no-gzip]";
+    public static final String SYNC_USAGE = "Uso: sync <fichero.csv|.jsonl[.gz]> [--delete-missing]";
+    public static final String ERROR_SYNC_RECORD = "Línea %d: %s";
+    public static final String EXPORT_PROGRESS = "%s: %d filas%s";
+    public static final String EXPORT_DONE = " (terminado)";
+    public static final String ERROR_EXPORT_INTERRUPTED = "Exportación interrumpida";
+    public static final String ERROR_UNKNOWN_COMMAND = "Comando desconocido: %s (import, export o sync)";
+    public static final String WARN_PLATE_INDEX_LOAD =
+            "No se pudo cargar el índice de matrículas, se consultará la base de datos: %s";
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_WITH_REJECTS = 3;
+
     private Constants() {
         // Prevent instantiation
     }
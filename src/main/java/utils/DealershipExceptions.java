@@ -63,4 +63,24 @@ public class DealershipExceptions {
             this.fieldValue = fieldValue;
         }
     }
+
+    /**
+     * The row exists but its version moved on since it was read: someone else updated it first.
+     */
+    @Getter
+    public static class ConcurrentUpdateException extends DealershipException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private final String entityType;
+        private final Integer id;
+        private final int version;
+
+        public ConcurrentUpdateException(String entityType, Integer id, int version) {
+            super(String.format("%s con ID %s fue modificado por otro usuario (versión leída: %d)",
+                    entityType, id, version));
+            this.entityType = entityType;
+            this.id = id;
+            this.version = version;
+        }
+    }
 }
\ No newline at end of file